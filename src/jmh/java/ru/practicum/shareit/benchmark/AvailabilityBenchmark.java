@@ -0,0 +1,153 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.booking.BookingPeriod;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemText;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+
+/**
+ * Free items for a window across a catalog of a million items. Every item is booked for a week,
+ * except every {@code FREE_EVERY}th, so a query for that week has to look through most of the catalog,
+ * while a query for the week after stops at the first matches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class AvailabilityBenchmark {
+    private static final int ITEMS = 1_000_000;
+    private static final int FREE_EVERY = 50_000;
+    private static final int PAGE = 20;
+    private static final LocalDateTime BUSY_FROM = BenchmarkData.BASE_TIME;
+    private static final LocalDateTime BUSY_UNTIL = BUSY_FROM.plusWeeks(1);
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private ItemSearchIndex itemSearchIndex;
+    private LongPredicate busyWeek;
+    private LongPredicate freeWeek;
+
+    @Setup
+    public void setUp() {
+        List<ItemText> texts = LongStream.rangeClosed(1, ITEMS).mapToObj(AvailabilityBenchmark::text).toList();
+        ItemRepository itemRepository = InMemoryRepositories.of(ItemRepository.class, Map.of(
+                "findAvailableTextsAfter", args -> {
+                    int from = (int) (long) (Long) args[0];
+                    int to = Math.min(texts.size(), from + ((Limit) args[1]).max());
+                    return texts.subList(from, to);
+                }));
+        itemSearchIndex = new ItemSearchIndex(itemRepository);
+        itemSearchIndex.load();
+
+        BookingRepository bookingRepository = InMemoryRepositories.of(BookingRepository.class,
+                Map.<String, Function<Object[], Object>>of(
+                        "findItemIdsWithActivePeriods", args -> LongStream
+                                .rangeClosed((Long) args[0] + 1, Math.min(ITEMS, (Long) args[0] + ((Limit) args[3]).max()))
+                                .boxed()
+                                .toList(),
+                        "findActivePeriods", args -> ((Collection<?>) args[0]).stream()
+                                .map(itemId -> (Long) itemId)
+                                .filter(itemId -> itemId % FREE_EVERY != 0)
+                                .map(AvailabilityBenchmark::period)
+                                .toList()));
+        BookingIntervalIndex bookingIntervalIndex = new BookingIntervalIndex(bookingRepository);
+        bookingIntervalIndex.load();
+
+        busyWeek = bookingIntervalIndex.availableDuring(BUSY_FROM.plusDays(2), BUSY_FROM.plusDays(3));
+        freeWeek = bookingIntervalIndex.availableDuring(BUSY_UNTIL.plusDays(1), BUSY_UNTIL.plusDays(2));
+    }
+
+    @Benchmark
+    public List<Long> anyItemBusyWeek() {
+        return itemSearchIndex.search("", PAGE, busyWeek, parallel);
+    }
+
+    @Benchmark
+    public List<Long> anyItemFreeWeek() {
+        return itemSearchIndex.search("", PAGE, freeWeek, parallel);
+    }
+
+    @Benchmark
+    public List<Long> commonWordBusyWeek() {
+        return itemSearchIndex.search("drill", PAGE, busyWeek, parallel);
+    }
+
+    @Benchmark
+    public List<Long> commonWordFreeWeek() {
+        return itemSearchIndex.search("drill", PAGE, freeWeek, parallel);
+    }
+
+    private static ItemText text(long id) {
+        String name = (id % 2 == 0 ? "Cordless drill " : "Folding ladder ") + id;
+        return new Text(id, name, "Rent it for the weekend, item " + id);
+    }
+
+    private static BookingPeriod period(long itemId) {
+        return new Period(itemId, itemId, BUSY_FROM, BUSY_UNTIL);
+    }
+
+    private record Text(Long id, String name, String description) implements ItemText {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private record Period(Long id, Long itemId, LocalDateTime start, LocalDateTime end) implements BookingPeriod {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getItemId() {
+            return itemId;
+        }
+
+        @Override
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        @Override
+        public LocalDateTime getEnd() {
+            return end;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.benchmark;
+
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Fixed entity graphs shared by the benchmarks, so results stay comparable between runs.
+ */
+final class BenchmarkData {
+    static final LocalDateTime BASE_TIME = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    private BenchmarkData() {
+    }
+
+    static User user(long id) {
+        return User.builder().id(id).name("user " + id).email("user" + id + "@example.com").build();
+    }
+
+    static Item item(long id, User owner) {
+        return Item.builder()
+                .id(id)
+                .name("Cordless drill " + id)
+                .description("18V cordless drill with two batteries and a charger, item " + id)
+                .available(true)
+                .owner(owner)
+                .build();
+    }
+
+    static List<Item> items(int count, User owner) {
+        return LongStream.rangeClosed(1, count).mapToObj(id -> item(id, owner)).toList();
+    }
+
+    static List<Booking> bookings(int count, User booker, User owner) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Booking.builder()
+                        .id((long) i + 1)
+                        .start(BASE_TIME.plusDays(i))
+                        .end(BASE_TIME.plusDays(i).plusHours(3))
+                        .status(BookingStatus.APPROVED)
+                        .item(item(i % 10 + 1, owner))
+                        .booker(booker)
+                        .build())
+                .toList();
+    }
+
+    static Comment comment(long id, Item item, User author) {
+        return Comment.builder()
+                .id(id)
+                .text("Worked well for a weekend of shelving, comment " + id)
+                .item(item)
+                .author(author)
+                .created(BASE_TIME.minusDays(id))
+                .build();
+    }
+}
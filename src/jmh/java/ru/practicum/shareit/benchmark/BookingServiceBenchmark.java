@@ -0,0 +1,160 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.impl.BookingServiceImpl;
+import ru.practicum.shareit.booking.event.BookingEventBus;
+import ru.practicum.shareit.booking.feed.BookingOutbox;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemCache;
+import ru.practicum.shareit.item.ItemOwnerCache;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.OwnedItemView;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserView;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+/**
+ * Booking creation through the real service, interval index and validator,
+ * with repositories replaced by in-memory stand-ins. Every call books the next free slot of the next item,
+ * and the index is rebuilt for each iteration so the per-item interval count stays small.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingServiceBenchmark {
+    private static final int ITEMS = 10_000;
+    private static final int BATCH_SIZE = 50;
+
+    private final AtomicLong bookingIds = new AtomicLong();
+    private ValidatorFactory validatorFactory;
+    private User booker;
+    private Map<Long, Item> items;
+    private BookingServiceImpl bookingService;
+    private long requests;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        booker = BenchmarkData.user(2);
+        items = new HashMap<>();
+        BenchmarkData.items(ITEMS, BenchmarkData.user(1)).forEach(item -> items.put(item.getId(), item));
+    }
+
+    @Setup(Level.Iteration)
+    public void createService() {
+        BookingRepository bookingRepository = InMemoryRepositories.of(BookingRepository.class, Map.of(
+                "findActivePeriods", args -> List.of(),
+                "save", args -> withId((Booking) args[0]),
+                "saveAllAndFlush", args -> {
+                    List<Booking> saved = new ArrayList<>();
+                    ((Iterable<?>) args[0]).forEach(booking -> saved.add(withId((Booking) booking)));
+                    return saved;
+                }));
+        UserRepository userRepository = InMemoryRepositories.of(UserRepository.class, Map.of(
+                "findViewById", args -> Optional.of(new UserView(booker.getId(), booker.getName(),
+                        booker.getEmail()))));
+        ItemRepository itemRepository = InMemoryRepositories.of(ItemRepository.class, Map.<String, Function<Object[], Object>>of(
+                "findOwnedViewById", args -> Optional.ofNullable(items.get((Long) args[0]))
+                        .map(item -> new OwnedItemView(item.getId(), item.getName(), item.getDescription(),
+                                item.getAvailable(), item.getOwner().getId())),
+                "lockAllById", args -> List.copyOf((Collection<?>) args[0]),
+                "findAllById", args -> StreamSupport.stream(((Iterable<?>) args[0]).spliterator(), false)
+                        .map(items::get)
+                        .toList()));
+        ItemOwnerCache itemOwnerCache = new ItemOwnerCache(new SimpleMeterRegistry(), 1, Duration.ofMinutes(1));
+
+        CacheManager cacheManager = new ConcurrentMapCacheManager();
+        bookingService = new BookingServiceImpl(bookingRepository, null, null,
+                new UserCache(userRepository, cacheManager), itemRepository, new ItemCache(itemRepository, cacheManager),
+                new BookingIntervalIndex(bookingRepository), new BookingEventBus(List.of(), new SimpleMeterRegistry(), 2, 1,
+                BookingEventBus.OverflowPolicy.DROP, Duration.ZERO), new NoOutbox(), null,
+                itemOwnerCache, new ObjectMapper(), null,
+                validatorFactory.getValidator());
+        requests = 0;
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public BookingResponseDto create() {
+        return bookingService.create(nextRequest(), booker.getId());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<BookingBatchResultDto> createBatch() {
+        List<BookingRequestDto> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(nextRequest());
+        }
+        return bookingService.createBatch(batch, booker.getId());
+    }
+
+    private BookingRequestDto nextRequest() {
+        long request = requests++;
+        BookingRequestDto dto = new BookingRequestDto();
+        dto.setItemId(request % ITEMS + 1);
+        dto.setStart(BenchmarkData.BASE_TIME.plusHours(request / ITEMS * 2));
+        dto.setEnd(dto.getStart().plusHours(1));
+        return dto;
+    }
+
+    private Booking withId(Booking booking) {
+        booking.setId(bookingIds.incrementAndGet());
+        return booking;
+    }
+
+    // the outbox insert is one batched statement, left out like the rest of the database
+    private static final class NoOutbox extends BookingOutbox {
+        private NoOutbox() {
+            super(null);
+        }
+
+        @Override
+        public void append(Collection<Booking> bookings) {
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ru.practicum.shareit.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import ru.practicum.shareit.user.EmailBloomFilter;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * The email check of user signups and email edits. {@code registeredEmail} and {@code newEmail} ask the Bloom filter
+ * alone. The benchmarks taking {@link Database} need the local Postgres, where the same {@code users} emails are
+ * copied into the schema {@value Database#SCHEMA} for the run: {@code findAll} is the check this replaced, every user
+ * loaded to compare emails, {@code existsByEmail} the indexed query on its own, and {@code check*} the filter with the
+ * query behind it, as UserServiceImpl runs them. Point them at another database with
+ * {@code -jvmArgsAppend -Dbench.jdbcUrl=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EmailBloomFilterBenchmark {
+    @Param({"100000", "1000000"})
+    private int users;
+
+    private EmailBloomFilter emailBloomFilter;
+    private long probe;
+
+    @Setup
+    public void setUp() {
+        UserRepository userRepository = InMemoryRepositories.of(UserRepository.class, Map.of(
+                "streamAllEmails", args -> LongStream.range(0, users).mapToObj(EmailBloomFilterBenchmark::email)));
+        emailBloomFilter = new EmailBloomFilter(userRepository, users, 0.01);
+        emailBloomFilter.load();
+    }
+
+    @Benchmark
+    public boolean registeredEmail() {
+        return emailBloomFilter.mightContain(email(probe++ % users));
+    }
+
+    @Benchmark
+    public boolean newEmail() {
+        return emailBloomFilter.mightContain(email(users + probe++));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean findAll(Database database) {
+        String email = email(users + probe++);
+        return database.userRepository.findAll().stream().noneMatch(user -> user.getEmail().equals(email));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean existsByEmail(Database database) {
+        return database.userRepository.existsByEmail(email(probe++ % users));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean checkRegisteredEmail(Database database) {
+        return isDistinct(database, email(probe++ % users));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean checkNewEmail(Database database) {
+        return isDistinct(database, email(users + probe++));
+    }
+
+    private boolean isDistinct(Database database, String email) {
+        return !emailBloomFilter.mightContain(email) || !database.userRepository.existsByEmail(email);
+    }
+
+    private static String email(long id) {
+        return "user" + id + "@example.com";
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        static final String SCHEMA = "email_check_benchmark";
+
+        private HikariDataSource dataSource;
+        private EntityManagerFactory entityManagerFactory;
+        private UserRepository userRepository;
+
+        @Setup
+        public void setUp(EmailBloomFilterBenchmark benchmark) throws SQLException {
+            dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(System.getProperty("bench.jdbcUrl", "jdbc:postgresql://localhost:5432/shareit"));
+            dataSource.setUsername(System.getProperty("bench.user", "dbuser"));
+            dataSource.setPassword(System.getProperty("bench.password", "12345"));
+            seed(benchmark.users);
+
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan("ru.practicum.shareit");
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaPropertyMap(Map.of(
+                    "hibernate.default_schema", SCHEMA,
+                    "jakarta.persistence.validation.mode", "none"));
+            factory.afterPropertiesSet();
+            entityManagerFactory = factory.getObject();
+            // outside a transaction every repository call gets an entity manager of its own, as a request does
+            userRepository = new JpaRepositoryFactory(SharedEntityManagerCreator
+                    .createSharedEntityManager(entityManagerFactory)).getRepository(UserRepository.class);
+        }
+
+        @TearDown
+        public void tearDown() throws SQLException {
+            entityManagerFactory.close();
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+            }
+            dataSource.close();
+        }
+
+        // the users table without its neighbours, the unique email index included
+        private void seed(int users) throws SQLException {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+                    statement.execute("CREATE SCHEMA " + SCHEMA);
+                    statement.execute("CREATE TABLE " + SCHEMA + ".users (LIKE public.users INCLUDING ALL)");
+                }
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + SCHEMA + ".users "
+                        + "(id, name, email) SELECT g + 1, 'user ' || g, 'user' || g || '@example.com' "
+                        + "FROM generate_series(0, ? - 1) g")) {
+                    insert.setInt(1, users);
+                    insert.executeUpdate();
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("ANALYZE " + SCHEMA + ".users");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Repository stand-ins for benchmarks: a proxy that answers the listed methods by name
+ * and fails on anything else, so a benchmark can't silently measure an unplanned call.
+ */
+final class InMemoryRepositories {
+    private InMemoryRepositories() {
+    }
+
+    static <R> R of(Class<R> type, Map<String, Function<Object[], Object>> methods) {
+        Object repository = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Function<Object[], Object> handler = methods.get(method.getName());
+                    if (handler != null) {
+                        return handler.apply(args);
+                    }
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "hashCode" -> System.identityHashCode(proxy);
+                            case "equals" -> proxy == args[0];
+                            default -> type.getSimpleName() + " stand-in";
+                        };
+                    }
+                    throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                });
+        return type.cast(repository);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemText;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemSearchBenchmark {
+    static final String[] TOOLS = {"drill", "saw", "ladder", "hammer", "tent", "kayak", "projector",
+        "sander", "grinder", "mixer", "vacuum", "trailer", "bike", "scooter", "camera", "tripod"};
+    static final String[] DETAILS = {"cordless", "electric", "folding", "heavy duty", "compact",
+        "professional", "waterproof", "lightweight", "with case", "for kids", "two person", "18V"};
+
+    @Param({"10000", "100000"})
+    private int itemCount;
+
+    private ItemSearchIndex itemSearchIndex;
+
+    @Setup
+    public void setUp() {
+        List<ItemText> texts = LongStream.rangeClosed(1, itemCount).<ItemText>mapToObj(ItemSearchBenchmark::text).toList();
+        ItemRepository itemRepository = InMemoryRepositories.of(ItemRepository.class, Map.of(
+                "findAvailableTextsAfter", args -> {
+                    int from = (int) (long) (Long) args[0];
+                    int to = Math.min(texts.size(), from + ((Limit) args[1]).max());
+                    return texts.subList(from, to);
+                }));
+        itemSearchIndex = new ItemSearchIndex(itemRepository);
+        itemSearchIndex.load();
+    }
+
+    @Benchmark
+    public List<Long> commonWord() {
+        return itemSearchIndex.search("drill", 20);
+    }
+
+    @Benchmark
+    public List<Long> rarePhrase() {
+        return itemSearchIndex.search("waterproof ladder 4242", 20);
+    }
+
+    @Benchmark
+    public List<Long> noMatch() {
+        return itemSearchIndex.search("snowboard", 20);
+    }
+
+    @Benchmark
+    public List<Long> shortQuery() {
+        return itemSearchIndex.search("zz", 20);
+    }
+
+    static ItemText text(long id) {
+        String tool = TOOLS[(int) (id % TOOLS.length)];
+        String detail = DETAILS[(int) (id * 7 % DETAILS.length)];
+        return new Text(id, detail + " " + tool + " " + id, "Rent a " + detail + " " + tool + " for the weekend");
+    }
+
+    private record Text(Long id, String name, String description) implements ItemText {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+    }
+}
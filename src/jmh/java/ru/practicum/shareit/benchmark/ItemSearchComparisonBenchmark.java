@@ -0,0 +1,169 @@
+package ru.practicum.shareit.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemText;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * GET /items/search as served by {@link ItemSearchIndex} against the {@code LIKE '%text%'} query it replaced,
+ * over the same {@code itemCount} items of {@link ItemSearchBenchmark} in the local Postgres. {@code index} finds
+ * the ids in memory and reads the rows by primary key, as ItemServiceImpl does; {@code like} runs the query of
+ * ItemRepository.search. Both return the first {@value #SIZE} matches by id. The items live in the schema
+ * {@value #SCHEMA}, created for the run and dropped afterwards; point the benchmark at another database with
+ * {@code -jvmArgsAppend -Dbench.jdbcUrl=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemSearchComparisonBenchmark {
+    private static final String SCHEMA = "item_search_benchmark";
+    private static final int SIZE = 20;
+    private static final String COLUMNS = "SELECT id, name, description, is_available FROM " + SCHEMA + ".items ";
+
+    @Param({"100000", "1000000"})
+    private int itemCount;
+
+    @Param({"index", "like"})
+    private String search;
+
+    private HikariDataSource dataSource;
+    private Connection connection;
+    private PreparedStatement like;
+    private PreparedStatement byIds;
+    private ItemSearchIndex itemSearchIndex;
+
+    @Setup
+    public void setUp() throws SQLException {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("bench.jdbcUrl", "jdbc:postgresql://localhost:5432/shareit"));
+        dataSource.setUsername(System.getProperty("bench.user", "dbuser"));
+        dataSource.setPassword(System.getProperty("bench.password", "12345"));
+        dataSource.setMaximumPoolSize(1);
+        connection = dataSource.getConnection();
+        seed();
+
+        like = connection.prepareStatement(COLUMNS + "WHERE is_available "
+                + "AND (upper(name) LIKE upper('%' || ? || '%') OR upper(description) LIKE upper('%' || ? || '%')) "
+                + "ORDER BY id LIMIT " + SIZE);
+        byIds = connection.prepareStatement(COLUMNS + "WHERE id = ANY (?) AND is_available ORDER BY id");
+
+        List<ItemText> texts = LongStream.rangeClosed(1, itemCount).mapToObj(ItemSearchBenchmark::text).toList();
+        ItemRepository itemRepository = InMemoryRepositories.of(ItemRepository.class, Map.of(
+                "findAvailableTextsAfter", args -> {
+                    int from = (int) (long) (Long) args[0];
+                    int to = Math.min(texts.size(), from + ((Limit) args[1]).max());
+                    return texts.subList(from, to);
+                }));
+        itemSearchIndex = new ItemSearchIndex(itemRepository);
+        itemSearchIndex.load();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+        }
+        connection.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> commonWord() throws SQLException {
+        return search("drill");
+    }
+
+    @Benchmark
+    public List<ItemDto> rarePhrase() throws SQLException {
+        return search("waterproof ladder 4242");
+    }
+
+    @Benchmark
+    public List<ItemDto> noMatch() throws SQLException {
+        return search("snowboard");
+    }
+
+    @Benchmark
+    public List<ItemDto> shortQuery() throws SQLException {
+        return search("zz");
+    }
+
+    private List<ItemDto> search(String text) throws SQLException {
+        if ("like".equals(search)) {
+            like.setString(1, text);
+            like.setString(2, text);
+            return read(like);
+        }
+        List<Long> ids = itemSearchIndex.search(text, SIZE);
+        byIds.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+        return read(byIds);
+    }
+
+    private static List<ItemDto> read(PreparedStatement query) throws SQLException {
+        List<ItemDto> items = new ArrayList<>();
+        try (ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                items.add(ItemDto.builder()
+                        .id(rows.getLong(1))
+                        .name(rows.getString(2))
+                        .description(rows.getString(3))
+                        .available(rows.getBoolean(4))
+                        .build());
+            }
+        }
+        return items;
+    }
+
+    // the texts of ItemSearchBenchmark.text, generated by the database; the copy of the items table keeps its
+    // indexes but not its foreign keys, so the rows need no owners
+    private void seed() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            statement.execute("CREATE SCHEMA " + SCHEMA);
+            statement.execute("CREATE TABLE " + SCHEMA + ".items (LIKE public.items INCLUDING ALL)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + SCHEMA + ".items "
+                + "(id, name, description, is_available, owner_id) "
+                + "SELECT g, detail || ' ' || tool || ' ' || g, 'Rent a ' || detail || ' ' || tool || ' for the weekend', "
+                + "true, 0 FROM generate_series(1, ?) g "
+                + "CROSS JOIN LATERAL (SELECT (?::text[])[1 + g % ?] AS tool, (?::text[])[1 + g * 7 % ?] AS detail) t")) {
+            insert.setInt(1, itemCount);
+            insert.setArray(2, connection.createArrayOf("text", ItemSearchBenchmark.TOOLS));
+            insert.setInt(3, ItemSearchBenchmark.TOOLS.length);
+            insert.setArray(4, connection.createArrayOf("text", ItemSearchBenchmark.DETAILS));
+            insert.setInt(5, ItemSearchBenchmark.DETAILS.length);
+            insert.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE " + SCHEMA + ".items");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.comment.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemOwnerDto;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+    @Param({"20", "100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<BookingResponseDto> bookings;
+    private List<ItemOwnerDto> items;
+
+    @Setup
+    public void setUp() {
+        // the same defaults Spring Boot applies to the application's ObjectMapper
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        User owner = BenchmarkData.user(1);
+        User booker = BenchmarkData.user(2);
+        bookings = BenchmarkData.bookings(size, booker, owner).stream()
+                .map(BookingMapper::toResponseDto)
+                .toList();
+        items = BenchmarkData.items(size, owner).stream()
+                .map(item -> {
+                    ItemOwnerDto dto = ItemMapper.toItemOwnerDto(item,
+                            BenchmarkData.BASE_TIME.minusDays(1), BenchmarkData.BASE_TIME.plusDays(1));
+                    dto.setComments(List.of(CommentMapper.toRespondDto(BenchmarkData.comment(1, item, booker)),
+                            CommentMapper.toRespondDto(BenchmarkData.comment(2, item, booker))));
+                    return dto;
+                })
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] bookingResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] itemOwnerViews() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+}
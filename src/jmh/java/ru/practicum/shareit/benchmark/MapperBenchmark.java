@@ -0,0 +1,65 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentMapper;
+import ru.practicum.shareit.item.comment.CommentRespondDto;
+import ru.practicum.shareit.item.dto.ItemOwnerDto;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private Booking booking;
+    private Item item;
+    private Comment comment;
+    private LocalDateTime lastBooking;
+    private LocalDateTime nextBooking;
+
+    @Setup
+    public void setUp() {
+        User owner = BenchmarkData.user(1);
+        User booker = BenchmarkData.user(2);
+        booking = BenchmarkData.bookings(1, booker, owner).getFirst();
+        item = BenchmarkData.item(1, owner);
+        comment = BenchmarkData.comment(1, item, booker);
+        lastBooking = BenchmarkData.BASE_TIME.minusDays(1);
+        nextBooking = BenchmarkData.BASE_TIME.plusDays(1);
+    }
+
+    @Benchmark
+    public BookingResponseDto bookingToResponseDto() {
+        return BookingMapper.toResponseDto(booking);
+    }
+
+    @Benchmark
+    public ItemOwnerDto itemToOwnerDto() {
+        return ItemMapper.toItemOwnerDto(item, lastBooking, nextBooking);
+    }
+
+    @Benchmark
+    public CommentRespondDto commentToRespondDto() {
+        return CommentMapper.toRespondDto(comment);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.benchmark;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.error.ValidationMarker;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private BookingRequestDto validBooking;
+    private BookingRequestDto pastBooking;
+    private UserDto user;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validBooking = new BookingRequestDto();
+        validBooking.setItemId(1L);
+        validBooking.setStart(BenchmarkData.BASE_TIME);
+        validBooking.setEnd(BenchmarkData.BASE_TIME.plusDays(1));
+        pastBooking = new BookingRequestDto();
+        pastBooking.setItemId(1L);
+        pastBooking.setStart(BenchmarkData.BASE_TIME.minusYears(10));
+        pastBooking.setEnd(BenchmarkData.BASE_TIME.minusYears(10).plusDays(1));
+        user = UserDto.builder().name("user").email("user@example.com").build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BookingRequestDto>> validBookingRequest() {
+        return validator.validate(validBooking, ValidationMarker.OnCreate.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BookingRequestDto>> pastBookingRequest() {
+        return validator.validate(pastBooking, ValidationMarker.OnCreate.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserDto>> newUser() {
+        return validator.validate(user, ValidationMarker.OnCreate.class);
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bulk inserts of bookings and comments through Hibernate into the local Postgres, {@value #ROWS} rows per
+ * transaction. {@code batching=off} sends one INSERT per row, the round trips the IDENTITY ids cost before,
+ * {@code on} runs with the JDBC batching and driver settings of application.properties. Scores are rows per second.
+ * The rows belong to a user and item created for the run and are deleted afterwards; point the benchmark at another
+ * database with {@code -jvmArgsAppend -Dbench.jdbcUrl=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBatchingBenchmark {
+    private static final int ROWS = 100;
+
+    @Param({"off", "on"})
+    private String batching;
+
+    private HikariDataSource dataSource;
+    private EntityManagerFactory entityManagerFactory;
+    private long userId;
+    private long itemId;
+    private LocalDateTime nextStart;
+
+    @Setup
+    public void setUp() {
+        boolean on = "on".equals(batching);
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("bench.jdbcUrl", "jdbc:postgresql://localhost:5432/shareit"));
+        dataSource.setUsername(System.getProperty("bench.user", "dbuser"));
+        dataSource.setPassword(System.getProperty("bench.password", "12345"));
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", on);
+        if (on) {
+            dataSource.addDataSourceProperty("prepareThreshold", 3);
+            dataSource.addDataSourceProperty("preparedStatementCacheQueries", 512);
+            dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB", 8);
+        }
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("ru.practicum.shareit");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.id.optimizer.pooled.preferred", "pooled-lo",
+                "hibernate.jdbc.batch_size", on ? "50" : "1",
+                "hibernate.order_inserts", Boolean.toString(on),
+                "jakarta.persistence.validation.mode", "none"));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+
+        inTransaction(entityManager -> {
+            User user = User.builder().name("benchmark").email("benchmark-" + System.nanoTime() + "@example.com")
+                    .build();
+            entityManager.persist(user);
+            Item item = Item.builder().name("benchmark").description("write batching benchmark").available(true)
+                    .owner(user).build();
+            entityManager.persist(item);
+            userId = user.getId();
+            itemId = item.getId();
+        });
+        nextStart = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        inTransaction(entityManager -> {
+            entityManager.createNativeQuery("DELETE FROM comments WHERE author_id = :id")
+                    .setParameter("id", userId).executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM bookings WHERE booker_id = :id")
+                    .setParameter("id", userId).executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM items WHERE id = :id")
+                    .setParameter("id", itemId).executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM users WHERE id = :id")
+                    .setParameter("id", userId).executeUpdate();
+        });
+        entityManagerFactory.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void createBookings() {
+        inTransaction(entityManager -> {
+            Item item = entityManager.getReference(Item.class, itemId);
+            User booker = entityManager.getReference(User.class, userId);
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(Booking.builder()
+                        .start(nextStart)
+                        .end(nextStart.plusMinutes(1))
+                        .item(item)
+                        .booker(booker)
+                        .status(BookingStatus.WAITING)
+                        .build());
+                nextStart = nextStart.plusMinutes(1);
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void createComments() {
+        inTransaction(entityManager -> {
+            Item item = entityManager.getReference(Item.class, itemId);
+            User author = entityManager.getReference(User.class, userId);
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(Comment.builder().text("benchmark comment").item(item).author(author).build());
+            }
+        });
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            entityManager.getTransaction().begin();
+            work.accept(entityManager);
+            entityManager.getTransaction().commit();
+        }
+    }
+}
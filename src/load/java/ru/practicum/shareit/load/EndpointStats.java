@@ -0,0 +1,76 @@
+package ru.practicum.shareit.load;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Latencies and outcomes of one endpoint. Latency is measured from the scheduled arrival,
+ * not from the moment the request was sent, so a slow server can't hide its queueing delay.
+ */
+final class EndpointStats {
+    private final String name;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong clientErrors = new AtomicLong();
+    private final AtomicLong serverErrors = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private long[] latencies = new long[1024];
+    private int count;
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void record(long latencyNanos, int status) {
+        if (status >= 500) {
+            serverErrors.incrementAndGet();
+        } else if (status >= 400) {
+            clientErrors.incrementAndGet();
+        }
+        lock.lock();
+        try {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void recordFailure(long latencyNanos) {
+        failures.incrementAndGet();
+        record(latencyNanos, 0);
+    }
+
+    Summary summarize(double seconds) {
+        long[] sorted;
+        lock.lock();
+        try {
+            sorted = Arrays.copyOf(latencies, count);
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(sorted);
+        long errors = clientErrors.get() + serverErrors.get() + failures.get();
+        return new Summary(name, sorted.length, sorted.length / seconds, clientErrors.get(), serverErrors.get(),
+                failures.get(), sorted.length == 0 ? 0 : 100.0 * errors / sorted.length,
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    record Summary(String name, long requests, double throughput, long clientErrors, long serverErrors,
+                   long failures, double errorRate, double p50, double p95, double p99, double max) {
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load against a running app: requests arrive at {@code load.rate} per second
+ * whether or not earlier ones have finished, picked from the weighted {@code load.mix} and sent as seeded users.
+ * After a warm-up it reports throughput, latency percentiles and error rates per endpoint.
+ * Run with {@code mvn -P load test-compile exec:java -Dload.rate=300 -Dload.duration=PT60S}.
+ */
+public final class LoadDriver {
+    private static final String BASE_URL = System.getProperty("load.baseUrl", "http://localhost:8080");
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "200"));
+    private static final boolean POISSON = !"uniform".equals(System.getProperty("load.arrivals", "poisson"));
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT60S"));
+    private static final int USERS = Integer.getInteger("load.users", 500);
+    private static final int OWNERS = Integer.getInteger("load.owners", 50);
+    private static final int ITEMS_PER_OWNER = Integer.getInteger("load.itemsPerOwner", 10);
+    private static final String MIX = System.getProperty("load.mix",
+            "getItem=35,search=20,listBookings=15,ownerBookings=5,createBooking=10,approveBooking=5,getUser=10");
+
+    private LoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        long seeding = System.nanoTime();
+        SeedData seed = SeedData.create(client, objectMapper, BASE_URL, USERS, OWNERS, ITEMS_PER_OWNER);
+        System.out.printf(Locale.ROOT, "seeded %d users and %d items in %d ms%n", USERS, seed.items().size(),
+                Duration.ofNanos(System.nanoTime() - seeding).toMillis());
+
+        TrafficMix mix = new TrafficMix(client, objectMapper, BASE_URL, seed, MIX);
+        run(mix, WARMUP);
+        Map<TrafficMix.Operation, EndpointStats> stats = run(mix, DURATION);
+        report(stats);
+    }
+
+    private static Map<TrafficMix.Operation, EndpointStats> run(TrafficMix mix, Duration duration) {
+        Map<TrafficMix.Operation, EndpointStats> stats = new EnumMap<>(TrafficMix.Operation.class);
+        for (TrafficMix.Operation operation : TrafficMix.Operation.values()) {
+            stats.put(operation, new EndpointStats(operation.endpoint()));
+        }
+        SplittableRandom random = new SplittableRandom();
+        double meanGapNanos = 1_000_000_000.0 / RATE;
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long arrival = started; arrival < deadline; ) {
+                long wait = arrival - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long scheduled = arrival;
+                TrafficMix.Operation operation = mix.next();
+                executor.execute(() -> {
+                    try {
+                        TrafficMix.Result result = mix.execute(operation);
+                        if (result != null) {
+                            stats.get(result.operation()).record(System.nanoTime() - scheduled, result.status());
+                        }
+                    } catch (Exception e) {
+                        stats.get(operation).recordFailure(System.nanoTime() - scheduled);
+                    }
+                });
+                double gap = POISSON ? -Math.log(1 - random.nextDouble()) * meanGapNanos : meanGapNanos;
+                arrival += (long) Math.max(gap, 1);
+            }
+        }
+        return stats;
+    }
+
+    private static void report(Map<TrafficMix.Operation, EndpointStats> stats) {
+        double seconds = DURATION.toNanos() / 1e9;
+        System.out.printf(Locale.ROOT, "%s arrivals at %.0f/s for %ds, latency in ms from scheduled arrival%n",
+                POISSON ? "poisson" : "uniform", RATE, DURATION.toSeconds());
+        String format = "%-22s %8s %9s %6s %6s %6s %7s %9s %9s %9s %9s%n";
+        System.out.printf(Locale.ROOT, format, "endpoint", "requests", "req/s", "4xx", "5xx", "fail", "err%",
+                "p50", "p95", "p99", "max");
+        long requests = 0;
+        long errors = 0;
+        for (EndpointStats endpoint : stats.values()) {
+            EndpointStats.Summary summary = endpoint.summarize(seconds);
+            if (summary.requests() == 0) {
+                continue;
+            }
+            requests += summary.requests();
+            errors += summary.clientErrors() + summary.serverErrors() + summary.failures();
+            System.out.printf(Locale.ROOT, "%-22s %8d %9.1f %6d %6d %6d %6.2f%% %9.2f %9.2f %9.2f %9.2f%n",
+                    summary.name(), summary.requests(), summary.throughput(), summary.clientErrors(),
+                    summary.serverErrors(), summary.failures(), summary.errorRate(),
+                    summary.p50(), summary.p95(), summary.p99(), summary.max());
+        }
+        System.out.printf(Locale.ROOT, "total %d requests, %.1f req/s, %.2f%% errors%n",
+                requests, requests / seconds, requests == 0 ? 0 : 100.0 * errors / requests);
+    }
+}
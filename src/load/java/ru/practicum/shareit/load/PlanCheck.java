@@ -0,0 +1,143 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.practicum.shareit.sql.SyntheticData;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Query plan regression check against a running app started with {@code --shareit.sql.plans.sample=true}
+ * and {@code sqlplans} in {@code management.endpoints.web.exposure.include}.
+ * It calls every endpoint that reaches the database, then asks {@code /actuator/sqlplans} to explain each
+ * query the app ran and exits with 1 if any of them scans a large table sequentially.
+ * The plans only mean something on realistic volumes: {@code -Dplan.seed=200000} first tops the database up
+ * to that many bookings with {@link SyntheticData}, then exits, so the app can be restarted on the seeded data.
+ * Run with {@code mvn -P load test-compile exec:java -Dload.main=ru.practicum.shareit.load.PlanCheck}.
+ */
+public final class PlanCheck {
+    private static final String BASE_URL = System.getProperty("load.baseUrl", "http://localhost:8080");
+    private static final int SEED = Integer.getInteger("plan.seed", 0);
+    private static final String JDBC_URL = System.getProperty("plan.jdbcUrl", "jdbc:postgresql://localhost:5432/shareit");
+    private static final String JDBC_USER = System.getProperty("plan.user", "dbuser");
+    private static final String JDBC_PASSWORD = System.getProperty("plan.password", "12345");
+    private static final int ROUNDS = Integer.getInteger("plan.rounds", 3);
+
+    private PlanCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (SEED > 0) {
+            seed(SEED);
+            return;
+        }
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        SeedData seed = SeedData.create(client, objectMapper, BASE_URL, 20, 5, 4);
+        String everyOperation = Arrays.stream(TrafficMix.Operation.values())
+                .map(operation -> operation.key() + "=1")
+                .collect(Collectors.joining(","));
+        TrafficMix mix = new TrafficMix(client, objectMapper, BASE_URL, seed, everyOperation);
+        for (int round = 0; round < ROUNDS; round++) {
+            for (TrafficMix.Operation operation : TrafficMix.Operation.values()) {
+                mix.execute(operation);
+            }
+        }
+        exerciseRest(client, objectMapper, seed);
+
+        JsonNode report = objectMapper.readTree(send(client, "GET", "/actuator/sqlplans", null, null).body());
+        if (!report.path("sampling").asBoolean()) {
+            System.out.println("the app doesn't sample queries, start it with --shareit.sql.plans.sample=true");
+            System.exit(2);
+        }
+        System.exit(report(report) == 0 ? 0 : 1);
+    }
+
+    // endpoints outside the traffic mix: owner item lists, comments, single bookings, batches and exports
+    private static void exerciseRest(HttpClient client, ObjectMapper objectMapper, SeedData seed) throws Exception {
+        Long owner = seed.owners().getFirst();
+        Long booker = seed.bookers().getFirst();
+        Long itemId = seed.items().stream().filter(item -> seed.itemOwners().get(item).equals(owner)).findFirst()
+                .orElseThrow();
+        LocalDateTime start = LocalDateTime.now().plusYears(1).withNano(0);
+
+        String booking = objectMapper.writeValueAsString(Map.of("itemId", itemId,
+                "start", start.toString(), "end", start.plusHours(1).toString()));
+        JsonNode created = objectMapper.readTree(send(client, "POST", "/bookings", booking, booker).body());
+        long bookingId = created.path("id").asLong();
+        String batch = objectMapper.writeValueAsString(List.of(
+                Map.of("itemId", itemId, "start", start.plusHours(2).toString(), "end", start.plusHours(3).toString()),
+                Map.of("itemId", itemId, "start", start.plusHours(4).toString(), "end", start.plusHours(5).toString())));
+        send(client, "POST", "/bookings/batch", batch, booker);
+
+        send(client, "GET", "/bookings/" + bookingId, null, booker);
+        send(client, "PATCH", "/bookings/batch?approved=true", objectMapper.writeValueAsString(List.of(bookingId)), owner);
+        send(client, "GET", "/bookings/export", null, booker);
+        send(client, "GET", "/bookings/owner/export", null, owner);
+        send(client, "GET", "/items", null, owner);
+        send(client, "POST", "/items/%d/comment".formatted(itemId),
+                objectMapper.writeValueAsString(Map.of("text", "plan check")), booker);
+        send(client, "GET", "/items/available?start=%s&end=%s".formatted(start, start.plusDays(1)), null, booker);
+        send(client, "PATCH", "/users/" + booker,
+                objectMapper.writeValueAsString(Map.of("email", "plan-" + System.nanoTime() + "@example.com")), null);
+    }
+
+    private static int report(JsonNode report) {
+        int regressions = report.path("regressions").asInt();
+        long largeTableRows = report.path("largeTableRows").asLong();
+        for (JsonNode statement : report.path("statements")) {
+            String verdict = statement.path("regression").asBoolean() ? "SEQ SCAN"
+                    : statement.hasNonNull("error") ? "ERROR" : "ok";
+            System.out.printf(Locale.ROOT, "%-8s %s%n", verdict, statement.path("statement").asText());
+            for (JsonNode scan : statement.path("seqScans")) {
+                System.out.printf(Locale.ROOT, "         seq scan of %s (%d rows%s)%n", scan.path("table").asText(),
+                        scan.path("tableRows").asLong(), scan.path("filtered").asBoolean() ? ", filtered" : "");
+            }
+            if (statement.hasNonNull("error")) {
+                System.out.println("         " + statement.path("error").asText());
+            }
+        }
+        System.out.printf(Locale.ROOT, "%d statements, %d scan a table of %d+ rows sequentially%n",
+                report.path("statements").size(), regressions, largeTableRows);
+        return regressions;
+    }
+
+    private static HttpResponse<String> send(HttpClient client, String method, String path, String body, Long userId)
+            throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(BASE_URL + path))
+                .timeout(Duration.ofSeconds(60))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        if (userId != null) {
+            request.header(TrafficMix.USER_HEADER, userId.toString());
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void seed(int bookings) throws SQLException {
+        long started = System.nanoTime();
+        int added;
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD)) {
+            added = SyntheticData.seed(connection, bookings);
+        }
+        System.out.printf(Locale.ROOT, "added %d bookings in %d ms, restart the app now%n",
+                added, Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+}
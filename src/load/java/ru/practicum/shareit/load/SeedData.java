@@ -0,0 +1,83 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Users and items created through the public API before a run. The first users own the items,
+ * the rest only book them, so bookings never hit the "owner books own item" rule.
+ */
+record SeedData(List<Long> owners, List<Long> bookers, List<Long> items, Map<Long, Long> itemOwners) {
+    static final String[] TOOLS = {"drill", "saw", "ladder", "hammer", "tent", "kayak", "projector",
+        "sander", "grinder", "mixer", "vacuum", "trailer", "bike", "scooter", "camera", "tripod"};
+    private static final String[] DETAILS = {"cordless", "electric", "folding", "heavy duty", "compact",
+        "professional", "waterproof", "lightweight"};
+
+    static SeedData create(HttpClient client, ObjectMapper objectMapper, String baseUrl,
+                           int userCount, int ownerCount, int itemsPerOwner) throws Exception {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> users = new ArrayList<>();
+            for (int i = 0; i < userCount; i++) {
+                String body = objectMapper.writeValueAsString(Map.of(
+                        "name", "load user " + i,
+                        "email", "load-" + run + "-" + i + "@example.com"));
+                users.add(executor.submit(() -> post(client, objectMapper, baseUrl + "/users", body, null)));
+            }
+            List<Long> userIds = new ArrayList<>();
+            for (Future<Long> user : users) {
+                userIds.add(user.get());
+            }
+            List<Long> owners = userIds.subList(0, ownerCount);
+
+            List<Future<Long>> items = new ArrayList<>();
+            List<Long> requestedOwners = new ArrayList<>();
+            for (int i = 0; i < ownerCount * itemsPerOwner; i++) {
+                Long owner = owners.get(i % ownerCount);
+                String body = objectMapper.writeValueAsString(Map.of(
+                        "name", DETAILS[i % DETAILS.length] + " " + TOOLS[i % TOOLS.length] + " " + i,
+                        "description", "Load test " + TOOLS[i % TOOLS.length] + " available for rent",
+                        "available", true));
+                items.add(executor.submit(() -> post(client, objectMapper, baseUrl + "/items", body, owner)));
+                requestedOwners.add(owner);
+            }
+            List<Long> itemIds = new ArrayList<>();
+            Map<Long, Long> itemOwners = new HashMap<>();
+            for (int i = 0; i < items.size(); i++) {
+                Long itemId = items.get(i).get();
+                itemIds.add(itemId);
+                itemOwners.put(itemId, requestedOwners.get(i));
+            }
+            return new SeedData(List.copyOf(owners), List.copyOf(userIds.subList(ownerCount, userCount)),
+                    List.copyOf(itemIds), Map.copyOf(itemOwners));
+        }
+    }
+
+    private static Long post(HttpClient client, ObjectMapper objectMapper, String url, String body, Long userId)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (userId != null) {
+            request.header(TrafficMix.USER_HEADER, userId.toString());
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Seeding %s failed with %d: %s".formatted(url, response.statusCode(),
+                    response.body()));
+        }
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+}
@@ -0,0 +1,220 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Weighted mix of API calls made by the seeded users. New bookings get consecutive one-minute slots,
+ * so they never overlap, and are queued for their owners to approve or reject. An approval drawn while
+ * nothing waits for one becomes a new booking, so the mix keeps feeding itself.
+ */
+final class TrafficMix {
+    static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final String[] BOOKING_STATES = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING"};
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    enum Operation {
+        CREATE_BOOKING("createBooking", "POST /bookings"),
+        APPROVE_BOOKING("approveBooking", "PATCH /bookings/{id}"),
+        SEARCH_ITEMS("search", "GET /items/search"),
+        GET_ITEM("getItem", "GET /items/{id}"),
+        LIST_BOOKINGS("listBookings", "GET /bookings"),
+        LIST_OWNER_BOOKINGS("ownerBookings", "GET /bookings/owner"),
+        GET_USER("getUser", "GET /users/{id}"),
+        SEARCH_ITEMS_RX("searchRx", "GET /rx/items/search"),
+        LIST_BOOKINGS_RX("listBookingsRx", "GET /rx/bookings"),
+        LIST_OWNER_BOOKINGS_RX("ownerBookingsRx", "GET /rx/bookings/owner");
+
+        private final String key;
+        private final String endpoint;
+
+        Operation(String key, String endpoint) {
+            this.key = key;
+            this.endpoint = endpoint;
+        }
+
+        String key() {
+            return key;
+        }
+
+        String endpoint() {
+            return endpoint;
+        }
+
+        static Operation byKey(String key) {
+            return Arrays.stream(values())
+                    .filter(operation -> operation.key.equals(key))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown operation %s, expected one of %s"
+                            .formatted(key, Arrays.stream(values()).map(operation -> operation.key).toList())));
+        }
+    }
+
+    record Result(Operation operation, int status) {
+    }
+
+    private record PendingApproval(long bookingId, long ownerId) {
+    }
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final SeedData seed;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Queue<PendingApproval> pendingApprovals = new ConcurrentLinkedQueue<>();
+    private final AtomicLong bookingSlots = new AtomicLong();
+    private final LocalDateTime firstSlot = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MINUTES);
+
+    TrafficMix(HttpClient client, ObjectMapper objectMapper, String baseUrl, SeedData seed, String mix) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.seed = seed;
+        Map<Operation, Integer> weights = parse(mix);
+        this.operations = weights.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    List<Operation> operations() {
+        return List.of(operations);
+    }
+
+    Operation next() {
+        int ticket = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = Arrays.binarySearch(cumulativeWeights, ticket + 1);
+        Operation operation = operations[index >= 0 ? index : -index - 1];
+        return operation == Operation.APPROVE_BOOKING && pendingApprovals.isEmpty()
+                ? Operation.CREATE_BOOKING : operation;
+    }
+
+    /**
+     * Sends the request of the operation, or returns {@code null} without sending anything when an approval
+     * finds that other arrivals have taken every pending booking since it was drawn.
+     */
+    Result execute(Operation operation) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case CREATE_BOOKING -> createBooking();
+            case APPROVE_BOOKING -> approveBooking(random.nextInt(4) != 0);
+            case SEARCH_ITEMS -> searchItems(operation, "");
+            case GET_ITEM -> get(operation, "/items/" + pick(seed.items()), pick(seed.bookers()));
+            case LIST_BOOKINGS -> listBookings(operation, "");
+            case LIST_OWNER_BOOKINGS -> listOwnerBookings(operation, "");
+            case GET_USER -> get(operation, "/users/" + pick(seed.bookers()), null);
+            case SEARCH_ITEMS_RX -> searchItems(operation, "/rx");
+            case LIST_BOOKINGS_RX -> listBookings(operation, "/rx");
+            case LIST_OWNER_BOOKINGS_RX -> listOwnerBookings(operation, "/rx");
+        };
+    }
+
+    // the reactive read path takes the same requests under the /rx prefix
+    private Result searchItems(Operation operation, String prefix) throws IOException, InterruptedException {
+        return get(operation, prefix + "/items/search?text=%s&size=20"
+                .formatted(URLEncoder.encode(pick(SeedData.TOOLS), StandardCharsets.UTF_8)), pick(seed.bookers()));
+    }
+
+    private Result listBookings(Operation operation, String prefix) throws IOException, InterruptedException {
+        return get(operation, prefix + "/bookings?size=20&state=" + pick(BOOKING_STATES), pick(seed.bookers()));
+    }
+
+    private Result listOwnerBookings(Operation operation, String prefix) throws IOException, InterruptedException {
+        return get(operation, prefix + "/bookings/owner?size=20&state=" + pick(BOOKING_STATES), pick(seed.owners()));
+    }
+
+    private Result createBooking() throws IOException, InterruptedException {
+        Long itemId = pick(seed.items());
+        LocalDateTime start = firstSlot.plusMinutes(bookingSlots.getAndIncrement());
+        String body = objectMapper.writeValueAsString(Map.of(
+                "itemId", itemId,
+                "start", DATE_FORMAT.format(start),
+                "end", DATE_FORMAT.format(start.plusSeconds(30))));
+        HttpResponse<String> response = client.send(request("/bookings", pick(seed.bookers()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() < 300) {
+            long bookingId = objectMapper.readTree(response.body()).get("id").asLong();
+            pendingApprovals.add(new PendingApproval(bookingId, seed.itemOwners().get(itemId)));
+        }
+        return new Result(Operation.CREATE_BOOKING, response.statusCode());
+    }
+
+    private Result approveBooking(boolean approved) throws IOException, InterruptedException {
+        PendingApproval pending = pendingApprovals.poll();
+        if (pending == null) {
+            return null;
+        }
+        HttpResponse<Void> response = client.send(request("/bookings/%d?approved=%b"
+                        .formatted(pending.bookingId(), approved), pending.ownerId())
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.discarding());
+        return new Result(Operation.APPROVE_BOOKING, response.statusCode());
+    }
+
+    private Result get(Operation operation, String path, Long userId) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request(path, userId).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+        return new Result(operation, response.statusCode());
+    }
+
+    private HttpRequest.Builder request(String path, Long userId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        if (userId != null) {
+            request.header(USER_HEADER, userId.toString());
+        }
+        return request;
+    }
+
+    private static Map<Operation, Integer> parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like getItem=40, got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.byKey(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no operation with a positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    private static <T> T pick(T[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+}
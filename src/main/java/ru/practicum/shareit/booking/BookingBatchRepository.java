@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookingBatchRepository {
+    List<Long> updateWaitingStatuses(Collection<Long> bookingIds, Long ownerId, BookingStatus status);
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk status changes, since JPQL has no UPDATE ... RETURNING.
+ */
+@RequiredArgsConstructor
+public class BookingBatchRepositoryImpl implements BookingBatchRepository {
+    private static final String UPDATE_WAITING = "UPDATE bookings b SET status = :status FROM items i " +
+            "WHERE i.id = b.item_id AND i.owner_id = :ownerId AND b.id IN (:ids) AND b.status = 'WAITING' " +
+            "RETURNING b.id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> updateWaitingStatuses(Collection<Long> bookingIds, Long ownerId, BookingStatus status) {
+        if (bookingIds.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("status", status.name())
+                .addValue("ownerId", ownerId)
+                .addValue("ids", bookingIds);
+        return jdbcTemplate.queryForList(UPDATE_WAITING, params, Long.class);
+    }
+}
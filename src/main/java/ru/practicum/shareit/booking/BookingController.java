@@ -1,8 +1,19 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.enums.BookingState;
@@ -13,6 +24,11 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final long MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final BookingService bookingService;
 
     @PostMapping
@@ -21,6 +37,13 @@ public class BookingController {
         return bookingService.create(bookingRequestDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBatch(
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@NotNull BookingRequestDto> bookingRequestDtos,
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.createBatch(bookingRequestDtos, userId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingResponseDto setApprove(@PathVariable Long bookingId,
                                          @RequestParam(value = "approved") Boolean approved,
@@ -28,6 +51,20 @@ public class BookingController {
         return bookingService.setApprove(bookingId, userId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingBatchResultDto> setApproveBatch(
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@NotNull Long> bookingIds,
+            @RequestParam(value = "approved") Boolean approved,
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.setApproveBatch(bookingIds, userId, approved);
+    }
+
+    @GetMapping(path = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return bookingService.subscribe(userId, lastEventId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBooking(@PathVariable Long bookingId,
                                          @RequestHeader("X-Sharer-User-Id") Long userId) {
@@ -35,17 +72,57 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingResponseDto> getBookings(
+    public ResponseEntity<List<BookingResponseDto>> getBookings(
             @RequestHeader("X-Sharer-User-Id") Long userId,
-            @RequestParam(value = "state", required = false, defaultValue = "ALL") BookingState state) {
+            @RequestParam(value = "state", required = false, defaultValue = "ALL") BookingState state,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) @Positive @Max(MAX_PAGE_SIZE) Integer size) {
 
-        return bookingService.getBookings(userId, state);
+        return toResponse(bookingService.getBookings(userId, state, cursor, pageSize(cursor, size)));
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getBookingsByOwnerItems(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @RequestParam(value = "state", required = false, defaultValue = "ALL") BookingState state) {
+    public ResponseEntity<List<BookingResponseDto>> getBookingsByOwnerItems(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(value = "state", required = false, defaultValue = "ALL") BookingState state,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) @Positive @Max(MAX_PAGE_SIZE) Integer size) {
+
+        return toResponse(bookingService.getBookingsByOwnerItems(userId, state, cursor,
+                pageSize(cursor, size)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> bookingService.exportBookings(userId, out));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByOwnerItems(
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> bookingService.exportBookingsByOwnerItems(userId, out));
+    }
+
+    /**
+     * Without a cursor or a size every booking comes back in one response, as before paging existed;
+     * a cursor on its own pages by {@link #DEFAULT_PAGE_SIZE}.
+     */
+    public static Integer pageSize(String cursor, Integer size) {
+        if (size == null && cursor != null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return size;
+    }
 
-        return bookingService.getBookingsByOwnerItems(userId, state);
+    private ResponseEntity<List<BookingResponseDto>> toResponse(BookingPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
     }
 }
@@ -1,9 +1,14 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.archive.ArchivedBooking;
+import ru.practicum.shareit.booking.dto.BookingChangeDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.feed.BookingChange;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.dto.UserDto;
 
 @Component
 public class BookingMapper {
@@ -17,4 +22,46 @@ public class BookingMapper {
                 .booker(UserMapper.toUserDto(booking.getBooker()))
                 .build();
     }
+
+    public static BookingResponseDto toResponseDto(ArchivedBooking booking) {
+        return BookingResponseDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(booking.getStatus())
+                .item(ItemMapper.toItemDto(booking.getItem()))
+                .booker(UserMapper.toUserDto(booking.getBooker()))
+                .build();
+    }
+
+    public static BookingResponseDto toResponseDto(BookingView booking) {
+        return BookingResponseDto.builder()
+                .id(booking.id())
+                .start(booking.start())
+                .end(booking.end())
+                .status(booking.status())
+                .item(ItemDto.builder()
+                        .id(booking.itemId())
+                        .name(booking.itemName())
+                        .description(booking.itemDescription())
+                        .available(booking.itemAvailable())
+                        .build())
+                .booker(UserDto.builder()
+                        .id(booking.bookerId())
+                        .name(booking.bookerName())
+                        .email(booking.bookerEmail())
+                        .build())
+                .build();
+    }
+
+    public static BookingChangeDto toChangeDto(BookingChange change) {
+        return BookingChangeDto.builder()
+                .bookingId(change.bookingId())
+                .itemId(change.itemId())
+                .bookerId(change.bookerId())
+                .status(change.status())
+                .start(change.start())
+                .end(change.end())
+                .build();
+    }
 }
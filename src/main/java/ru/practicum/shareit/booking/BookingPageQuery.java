@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Translates a {@link BookingState} and a cursor into plain range bounds, so every state
+ * is served by the same keyset query on (start_date, id).
+ */
+@Getter
+public class BookingPageQuery {
+    public static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    public static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private LocalDateTime startAfter = EARLIEST;
+    private LocalDateTime startUntil = LATEST;
+    private LocalDateTime endFrom = EARLIEST;
+    private LocalDateTime endBefore = LATEST;
+    private Set<BookingStatus> statuses = EnumSet.allOf(BookingStatus.class);
+    private final LocalDateTime cursorStart;
+    private final Long cursorId;
+
+    private BookingPageQuery(BookingCursor cursor) {
+        this.cursorStart = cursor.getStart();
+        this.cursorId = cursor.getId();
+    }
+
+    public static BookingPageQuery of(BookingState state, BookingCursor cursor, LocalDateTime now) {
+        BookingPageQuery query = new BookingPageQuery(cursor);
+        switch (state) {
+            case CURRENT -> {
+                query.startUntil = now;
+                query.endFrom = now;
+            }
+            case PAST -> query.endBefore = now;
+            case FUTURE -> query.startAfter = now;
+            case WAITING -> query.statuses = EnumSet.of(BookingStatus.WAITING);
+            case REJECTED -> query.statuses = EnumSet.of(BookingStatus.REJECTED);
+            case ALL -> {
+            }
+        }
+        return query;
+    }
+}
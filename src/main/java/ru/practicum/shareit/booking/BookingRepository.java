@@ -1,43 +1,101 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingBatchRepository {
+    String PAGE_FILTER = "AND b.start > :#{#page.startAfter} AND b.start <= :#{#page.startUntil} " +
+            "AND b.end >= :#{#page.endFrom} AND b.end < :#{#page.endBefore} " +
+            "AND b.status IN :#{#page.statuses} " +
+            "AND (b.start < :#{#page.cursorStart} " +
+            "OR (b.start = :#{#page.cursorStart} AND b.id < :#{#page.cursorId})) " +
+            "ORDER BY b.start DESC, b.id DESC";
+    String EXPORT_FETCH_SIZE = "500";
+    // exactly the columns of a BookingResponseDto in one joined row, no managed entities and no lazy loads;
+    // a constructor expression, since interface projections cost a proxy and a map per row
+    String VIEW = "SELECT new ru.practicum.shareit.booking.BookingView(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.description, i.available, u.id, u.name, u.email) ";
 
-    @Query("SELECT b FROM Booking b " +
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b " +
             "WHERE b.item.id = ?1 " +
-            "AND b.start < ?3 " +
-            "AND b.end > ?2")
-    List<Booking> findOverlappingBookings(Long id, LocalDateTime start, LocalDateTime end);
+            "AND b.end > ?2 " +
+            "AND b.status IN ?3")
+    List<BookingPeriod> findActivePeriods(Long itemId, LocalDateTime now, Collection<BookingStatus> statuses);
 
-    @Query("SELECT b FROM Booking b WHERE b.booker.id = ?1 and b.start <= ?2 and b.end >= ?2 order by b.start DESC")
-    List<Booking> findCurrentBookings(Long userId, LocalDateTime now);
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b " +
+            "WHERE b.item.id IN ?1 " +
+            "AND b.end > ?2 " +
+            "AND b.status IN ?3")
+    List<BookingPeriod> findActivePeriods(Collection<Long> itemIds, LocalDateTime now,
+                                          Collection<BookingStatus> statuses);
 
-    @Query("SELECT b FROM Booking b WHERE b.booker.id = ?1 and b.end < ?2 order by b.start DESC")
-    List<Booking> findPastBookings(Long userId, LocalDateTime now);
+    @Query("SELECT DISTINCT b.item.id FROM Booking b " +
+            "WHERE b.item.id > ?1 " +
+            "AND b.end > ?2 " +
+            "AND b.status IN ?3 " +
+            "ORDER BY b.item.id")
+    List<Long> findItemIdsWithActivePeriods(Long afterItemId, LocalDateTime now, Collection<BookingStatus> statuses,
+                                            Limit limit);
 
-    @Query("SELECT b FROM Booking b WHERE b.booker.id = ?1 and b.start > ?2 order by b.start DESC")
-    List<Booking> findFutureBookings(Long userId, LocalDateTime now);
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(Long bookerId, Long itemId, BookingStatus status,
+                                                           LocalDateTime end);
 
-    @Query("SELECT b FROM Booking b WHERE b.item.id = ?1 AND b.end < ?2 AND b.status = 'CANCELED' ORDER BY b.end DESC")
-    Optional<Booking> findLastBooking(Long itemId, LocalDateTime now);
+    @Query("SELECT b.item.id AS itemId, MAX(b.end) AS date FROM Booking b " +
+            "WHERE b.item.id IN ?1 AND b.end < ?2 AND b.status = 'CANCELED' GROUP BY b.item.id")
+    List<ItemBookingDate> findLastBookingDates(Collection<Long> itemIds, LocalDateTime now);
 
-    @Query("SELECT b FROM Booking b WHERE b.item.id = ?1 AND b.start > ?2 ORDER BY b.start ASC")
-    Optional<Booking> findNextBooking(Long itemId, LocalDateTime now);
+    @Query("SELECT b.item.id AS itemId, MIN(b.start) AS date FROM Booking b " +
+            "WHERE b.item.id IN ?1 AND b.start > ?2 GROUP BY b.item.id")
+    List<ItemBookingDate> findNextBookingDates(Collection<Long> itemIds, LocalDateTime now);
 
-    @Query("SELECT b FROM Booking b WHERE b.id = ?1 AND (b.booker.id = ?2 OR b.item.owner.id = ?2)")
-    Optional<Booking> findByIdAndUserId(Long bookingId, Long userId);
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH i.owner JOIN FETCH b.booker WHERE b.id = ?1")
+    Optional<Booking> findWithItemAndBookerById(Long bookingId);
 
-    // использовал JPA Query Methods там где названия получаются не слишком длинными
-    List<Booking> findByBookerIdOrderByStartDesc(Long userId);
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH i.owner JOIN FETCH b.booker WHERE b.id IN ?1")
+    List<Booking> findAllWithItemAndBookerById(Collection<Long> bookingIds);
 
-    List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long userId, BookingStatus status);
+    // compare-and-set: only one of concurrent approve/reject calls can move a booking out of WAITING
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ?2 WHERE b.id = ?1 AND b.status = 'WAITING'")
+    int updateStatusIfWaiting(Long bookingId, BookingStatus status);
+
+    @Query(VIEW + "FROM Booking b JOIN b.item i JOIN b.booker u WHERE b.id = ?1 AND (u.id = ?2 OR i.owner.id = ?2)")
+    Optional<BookingView> findByIdAndUserId(Long bookingId, Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamByBookerId(Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker WHERE i.owner.id = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamByItemOwnerId(Long userId);
+
+    @Query(VIEW + "FROM Booking b JOIN b.item i JOIN b.booker u WHERE u.id = :userId " + PAGE_FILTER)
+    List<BookingView> findBookerPage(@Param("userId") Long userId, @Param("page") BookingPageQuery page, Limit limit);
+
+    @Query(VIEW + "FROM Booking b JOIN b.item i JOIN b.booker u WHERE i.owner.id = :userId " + PAGE_FILTER)
+    List<BookingView> findOwnerPage(@Param("userId") Long userId, @Param("page") BookingPageQuery page, Limit limit);
 }
@@ -1,20 +1,33 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.enums.BookingState;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface BookingService {
     BookingResponseDto create(BookingRequestDto bookingRequestDto, Long userId);
 
+    List<BookingBatchResultDto> createBatch(List<BookingRequestDto> bookingRequestDtos, Long userId);
+
     BookingResponseDto setApprove(Long bookingId, Long userId, Boolean approved);
 
+    List<BookingBatchResultDto> setApproveBatch(List<Long> bookingIds, Long userId, Boolean approved);
+
+    SseEmitter subscribe(Long userId, Long lastEventId);
 
     BookingResponseDto getBooking(Long bookingId, Long userId);
 
-    List<BookingResponseDto> getBookings(Long userId, BookingState state);
+    BookingPageDto getBookings(Long userId, BookingState state, String cursor, Integer size);
+
+    BookingPageDto getBookingsByOwnerItems(Long userId, BookingState state, String cursor, Integer size);
+
+    void exportBookings(Long userId, OutputStream out);
 
-    List<BookingResponseDto> getBookingsByOwnerItems(Long userId, BookingState state);
+    void exportBookingsByOwnerItems(Long userId, OutputStream out);
 }
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+
+public record BookingView(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                          Long itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                          Long bookerId, String bookerName, String bookerEmail) {
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+public interface ItemBookingDate {
+    Long getItemId();
+
+    LocalDateTime getDate();
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking.archive;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.BookingPageQuery;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingView;
+import ru.practicum.shareit.booking.ItemBookingDate;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The history queries of {@link BookingRepository} against {@code bookings_archive}.
+ */
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(Long bookerId, Long itemId, BookingStatus status,
+                                                           LocalDateTime end);
+
+    @Query("SELECT b.item.id AS itemId, MAX(b.end) AS date FROM ArchivedBooking b " +
+            "WHERE b.item.id IN ?1 AND b.end < ?2 AND b.status = 'CANCELED' GROUP BY b.item.id")
+    List<ItemBookingDate> findLastBookingDates(Collection<Long> itemIds, LocalDateTime now);
+
+    @Query(BookingRepository.VIEW + "FROM ArchivedBooking b JOIN b.item i JOIN b.booker u " +
+            "WHERE b.id = ?1 AND (u.id = ?2 OR i.owner.id = ?2)")
+    Optional<BookingView> findByIdAndUserId(Long bookingId, Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BookingRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM ArchivedBooking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<ArchivedBooking> streamByBookerId(Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BookingRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM ArchivedBooking b JOIN FETCH b.item i JOIN FETCH b.booker WHERE i.owner.id = ?1 " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<ArchivedBooking> streamByItemOwnerId(Long userId);
+
+    @Query(BookingRepository.VIEW + "FROM ArchivedBooking b JOIN b.item i JOIN b.booker u " +
+            "WHERE u.id = :userId " + BookingRepository.PAGE_FILTER)
+    List<BookingView> findBookerPage(@Param("userId") Long userId, @Param("page") BookingPageQuery page,
+                                     Limit limit);
+
+    @Query(BookingRepository.VIEW + "FROM ArchivedBooking b JOIN b.item i JOIN b.booker u " +
+            "WHERE i.owner.id = :userId " + BookingRepository.PAGE_FILTER)
+    List<BookingView> findOwnerPage(@Param("userId") Long userId, @Param("page") BookingPageQuery page,
+                                    Limit limit);
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.booking.archive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingPageQuery;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Where hot bookings end and the archive begins. Archived bookings ended, and so started, before
+ * {@link #cutoff}, so a list ordered by start descending needs the archive only once it gets past that point.
+ * Lists read the hot table first and the archive second: a booking can only move from one to the other,
+ * so it may show up in both reads, which the merge drops, but never in neither.
+ */
+@Component
+public class BookingArchive {
+    private static final Comparator<BookingResponseDto> NEWEST_FIRST =
+            Comparator.comparing(BookingResponseDto::getStart).thenComparing(BookingResponseDto::getId).reversed();
+
+    private final Duration after;
+
+    public BookingArchive(@Value("${shareit.bookings.archive.after:365d}") Duration after) {
+        this.after = after;
+    }
+
+    public LocalDateTime cutoff(LocalDateTime now) {
+        return now.minus(after);
+    }
+
+    /**
+     * Whether the archive can add to a page whose hot part, fetched with {@code limit}, is {@code hot}.
+     */
+    public boolean reaches(BookingPageQuery page, List<BookingResponseDto> hot, int limit, LocalDateTime now) {
+        LocalDateTime cutoff = cutoff(now);
+        if (!page.getStartAfter().isBefore(cutoff) || !page.getEndFrom().isBefore(cutoff)) {
+            return false;
+        }
+        return hot.size() < limit || hot.getLast().getStart().isBefore(cutoff);
+    }
+
+    public static List<BookingResponseDto> merge(List<BookingResponseDto> hot, List<BookingResponseDto> archived,
+                                                 int limit) {
+        List<BookingResponseDto> merged = new ArrayList<>(Math.min(limit, hot.size() + archived.size()));
+        merge(hot.iterator(), archived.iterator()).forEachRemaining(booking -> {
+            if (merged.size() < limit) {
+                merged.add(booking);
+            }
+        });
+        return merged;
+    }
+
+    public static Stream<BookingResponseDto> merge(Stream<BookingResponseDto> hot,
+                                                   Stream<BookingResponseDto> archived) {
+        Iterator<BookingResponseDto> merged = merge(hot.iterator(), archived.iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(hot::close)
+                .onClose(archived::close);
+    }
+
+    private static Iterator<BookingResponseDto> merge(Iterator<BookingResponseDto> hot,
+                                                      Iterator<BookingResponseDto> archived) {
+        return new Iterator<>() {
+            private BookingResponseDto nextHot = hot.hasNext() ? hot.next() : null;
+            private BookingResponseDto nextArchived = archived.hasNext() ? archived.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextHot != null || nextArchived != null;
+            }
+
+            @Override
+            public BookingResponseDto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                BookingResponseDto next;
+                if (nextArchived == null || nextHot != null && NEWEST_FIRST.compare(nextHot, nextArchived) <= 0) {
+                    next = nextHot;
+                    nextHot = hot.hasNext() ? hot.next() : null;
+                } else {
+                    next = nextArchived;
+                    nextArchived = archived.hasNext() ? archived.next() : null;
+                }
+                // moved while the lists were read: the same start and id, so the copies are adjacent
+                if (nextArchived != null && nextArchived.getId().equals(next.getId())) {
+                    nextArchived = archived.hasNext() ? archived.next() : null;
+                }
+                return next;
+            }
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.booking.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves bookings that ended before the {@link BookingArchive#cutoff} from {@code bookings} to
+ * {@code bookings_archive} every {@code interval}. Each chunk of {@code chunk-size} oldest bookings is one
+ * statement that deletes and inserts them, holding row locks only on the chunk, and chunks are
+ * {@code chunk-pause} apart so the archiver never takes more than a slice of the database. Rows locked by
+ * a request are skipped and taken on the next run, as are instances archiving at the same time.
+ * Around the chunks {@link BookingPartitions} creates the months ahead and drops the emptied ones.
+ */
+@Slf4j
+@Component
+public class BookingArchiver implements SmartLifecycle {
+    private static final String MOVE = "WITH moved AS (DELETE FROM bookings WHERE (id, end_date) IN (" +
+            "SELECT id, end_date FROM bookings WHERE end_date < :cutoff " +
+            "ORDER BY end_date LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, start_date, end_date, status, item_id, booker_id) " +
+            "INSERT INTO bookings_archive (id, start_date, end_date, status, item_id, booker_id) " +
+            "SELECT id, start_date, end_date, status, item_id, booker_id FROM moved";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final BookingArchive bookingArchive;
+    private final BookingPartitions bookingPartitions;
+    private final boolean enabled;
+    private final Duration interval;
+    private final int chunkSize;
+    private final long chunkPauseMillis;
+    private final int monthsAhead;
+    private final Counter moved;
+    private final Timer chunkTimer;
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    public BookingArchiver(NamedParameterJdbcTemplate jdbcTemplate, BookingArchive bookingArchive,
+                           BookingPartitions bookingPartitions, MeterRegistry meterRegistry,
+                           @Value("${shareit.bookings.archive.enabled:true}") boolean enabled,
+                           @Value("${shareit.bookings.archive.interval:1h}") Duration interval,
+                           @Value("${shareit.bookings.archive.chunk-size:1000}") int chunkSize,
+                           @Value("${shareit.bookings.archive.chunk-pause:100ms}") Duration chunkPause,
+                           @Value("${shareit.bookings.archive.months-ahead:12}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookingArchive = bookingArchive;
+        this.bookingPartitions = bookingPartitions;
+        this.enabled = enabled;
+        this.interval = interval;
+        this.chunkSize = chunkSize;
+        this.chunkPauseMillis = chunkPause.toMillis();
+        this.monthsAhead = monthsAhead;
+        this.moved = Counter.builder("booking.archive.moved")
+                .description("Bookings moved to the archive")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("booking.archive.chunk")
+                .description("Time to move one chunk of bookings to the archive")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Archives everything that ended before the cutoff, in chunks, and returns the number of bookings moved.
+     */
+    public long archive() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = bookingArchive.cutoff(now);
+        bookingPartitions.createMonths(YearMonth.from(now), monthsAhead + 1);
+
+        long started = System.nanoTime();
+        long total = 0;
+        int chunk;
+        do {
+            chunk = chunkTimer.record(() -> jdbcTemplate.update(MOVE,
+                    new MapSqlParameterSource("cutoff", cutoff).addValue("limit", chunkSize)));
+            moved.increment(chunk);
+            total += chunk;
+        } while (chunk == chunkSize && running && pause());
+
+        bookingPartitions.dropEndedBefore(cutoff);
+        if (total > 0) {
+            log.info("Archived {} bookings that ended before {} in {} ms", total, cutoff,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+        return total;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("booking-archiver")
+                .daemon(true)
+                .factory());
+        scheduler.scheduleWithFixedDelay(this::archiveQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.warn("Booking archiving failed, next attempt in {}", interval, e);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(chunkPauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
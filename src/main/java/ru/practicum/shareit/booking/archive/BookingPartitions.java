@@ -0,0 +1,140 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly range partitions of {@code bookings} by end date. Months ahead are created before bookings reach
+ * them; until then those bookings sit in {@code bookings_default} and are moved over when their month is
+ * created. Partitions that ended before the archive cutoff are empty once the archiver has passed them,
+ * and are dropped. Every change runs in its own transaction with a lock timeout, so a busy table makes it
+ * give up until the next run instead of queueing requests behind it.
+ */
+@Slf4j
+@Repository
+public class BookingPartitions {
+    private static final String LIST = "SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound " +
+            "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'bookings'::regclass";
+    private static final Pattern RANGE = Pattern.compile("FROM \\((?:'([^']+)'|MINVALUE)\\) TO \\((?:'([^']+)'|MAXVALUE)\\)");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'bookings_y'yyyy'm'MM");
+    // partition changes of concurrent instances would only fail each other's lock timeouts
+    private static final long MAINTENANCE_LOCK = 0x5368617265497401L;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long lockTimeoutMillis;
+
+    public BookingPartitions(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             @Value("${shareit.bookings.archive.lock-timeout:2s}") Duration lockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.lockTimeoutMillis = lockTimeout.toMillis();
+    }
+
+    /**
+     * Creates the partitions of {@code months} months from {@code first} on that no partition covers yet.
+     */
+    public void createMonths(YearMonth first, int months) {
+        for (int i = 0; i < months; i++) {
+            YearMonth month = first.plusMonths(i);
+            LocalDateTime from = month.atDay(1).atStartOfDay();
+            LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+            if (list().stream().noneMatch(partition -> partition.overlaps(from, to))) {
+                create(month.format(NAME), from, to);
+            }
+        }
+    }
+
+    /**
+     * Drops the empty partitions holding only bookings that ended before {@code cutoff}.
+     */
+    public void dropEndedBefore(LocalDateTime cutoff) {
+        for (Partition partition : list()) {
+            if (partition.to() != null && !partition.to().isAfter(cutoff)) {
+                dropIfEmpty(partition.name());
+            }
+        }
+    }
+
+    private void create(String name, LocalDateTime from, LocalDateTime to) {
+        MapSqlParameterSource range = new MapSqlParameterSource("from", from).addValue("to", to);
+        Integer moved = inMaintenance(() -> {
+            jdbcTemplate.getJdbcTemplate().execute("CREATE TABLE " + name + " (LIKE bookings INCLUDING DEFAULTS)");
+            // attaching fails while the default partition still has rows of the new range
+            int rows = jdbcTemplate.update("WITH moved AS (DELETE FROM bookings_default " +
+                    "WHERE end_date >= :from AND end_date < :to RETURNING *) " +
+                    "INSERT INTO " + name + " SELECT * FROM moved", range);
+            jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE bookings ATTACH PARTITION " + name +
+                    " FOR VALUES FROM ('" + from.format(BOUND) + "') TO ('" + to.format(BOUND) + "')");
+            // autovacuum would take a while to notice, and plans of the range queries depend on it
+            jdbcTemplate.getJdbcTemplate().execute("ANALYZE " + name + ", bookings_default");
+            return rows;
+        });
+        if (moved != null) {
+            log.info("Created booking partition {} for [{}, {}), {} bookings moved from the default partition",
+                    name, from, to, moved);
+        }
+    }
+
+    private void dropIfEmpty(String name) {
+        Boolean dropped = inMaintenance(() -> {
+            jdbcTemplate.getJdbcTemplate().execute("LOCK TABLE " + name + " IN ACCESS EXCLUSIVE MODE");
+            Boolean exists = jdbcTemplate.getJdbcTemplate().queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + name + ")", Boolean.class);
+            if (Boolean.TRUE.equals(exists)) {
+                return false;
+            }
+            jdbcTemplate.getJdbcTemplate().execute("DROP TABLE " + name);
+            return true;
+        });
+        if (Boolean.TRUE.equals(dropped)) {
+            log.info("Dropped booking partition {}, all of its bookings are archived", name);
+        }
+    }
+
+    // null when another instance is changing partitions right now
+    private <T> T inMaintenance(Supplier<T> change) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.getJdbcTemplate().execute("SET LOCAL lock_timeout = " + lockTimeoutMillis);
+            Boolean locked = jdbcTemplate.getJdbcTemplate().queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(" + MAINTENANCE_LOCK + ")", Boolean.class);
+            return Boolean.TRUE.equals(locked) ? change.get() : null;
+        });
+    }
+
+    private List<Partition> list() {
+        return jdbcTemplate.query(LIST, (rs, rowNum) -> {
+            Matcher range = RANGE.matcher(rs.getString("bound"));
+            if (!range.find()) {
+                // the default partition
+                return new Partition(rs.getString("name"), null, null, true);
+            }
+            return new Partition(rs.getString("name"), parse(range.group(1)), parse(range.group(2)), false);
+        });
+    }
+
+    private static LocalDateTime parse(String bound) {
+        return bound == null ? null : LocalDateTime.parse(bound, BOUND);
+    }
+
+    // null bounds are MINVALUE and MAXVALUE
+    private record Partition(String name, LocalDateTime from, LocalDateTime to, boolean isDefault) {
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            return !isDefault && (from == null || from.isBefore(end)) && (to == null || to.isAfter(start));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.event;
+
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.enums.BookingEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a booking at the moment it changed, safe to hand to other threads.
+ */
+public record BookingEvent(BookingEventType type, Long bookingId, Long itemId, Long bookerId,
+                           LocalDateTime start, LocalDateTime end, long occurredNanos) {
+
+    public static BookingEvent of(BookingEventType type, Booking booking) {
+        return new BookingEvent(type, booking.getId(), booking.getItem().getId(), booking.getBooker().getId(),
+                booking.getStart(), booking.getEnd(), System.nanoTime());
+    }
+}
@@ -0,0 +1,205 @@
+package ru.practicum.shareit.booking.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.enums.BookingEventType;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process bus for booking lifecycle events. Events are dispatched after the transaction commits
+ * into a bounded {@link RingBuffer} per subscriber, and each subscriber drains its buffer in batches
+ * on a dedicated thread. Publishing costs one CAS per subscriber, whatever the subscribers do.
+ * When a buffer is full the publisher either waits up to {@code block-timeout} for the consumer
+ * or drops the event; dropped events are counted.
+ */
+@Slf4j
+@Component
+public class BookingEventBus implements SmartLifecycle {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP
+    }
+
+    private final List<Subscription> subscriptions;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private volatile boolean running;
+
+    public BookingEventBus(List<BookingEventListener> listeners, MeterRegistry meterRegistry,
+                           @Value("${shareit.events.buffer-size:8192}") int bufferSize,
+                           @Value("${shareit.events.batch-size:256}") int batchSize,
+                           @Value("${shareit.events.overflow:BLOCK}") OverflowPolicy overflowPolicy,
+                           @Value("${shareit.events.block-timeout:100ms}") Duration blockTimeout) {
+        this.subscriptions = listeners.stream()
+                .map(listener -> new Subscription(listener, bufferSize, batchSize, meterRegistry))
+                .toList();
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+    }
+
+    public void publish(BookingEventType type, Booking booking) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        BookingEvent event = BookingEvent.of(type, booking);
+        TransactionHooks.afterCommit(() -> subscriptions.forEach(subscription -> subscription.offer(event)));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        subscriptions.forEach(Subscription::start);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        subscriptions.forEach(Subscription::stop);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // started before and stopped after the web server, so requests in flight can still publish
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private final class Subscription {
+        private final BookingEventListener listener;
+        private final String name;
+        private final RingBuffer<BookingEvent> buffer;
+        private final int batchSize;
+        private final Counter dropped;
+        private final Counter failed;
+        private final Timer lag;
+        private volatile Thread consumer;
+        private volatile boolean idle;
+
+        private Subscription(BookingEventListener listener, int bufferSize, int batchSize,
+                             MeterRegistry meterRegistry) {
+            this.listener = listener;
+            this.name = listener.getClass().getSimpleName();
+            this.buffer = new RingBuffer<>(bufferSize);
+            this.batchSize = batchSize;
+            Gauge.builder("booking.events.queue.depth", buffer, RingBuffer::size)
+                    .description("Events waiting for the subscriber")
+                    .tag("subscriber", name)
+                    .register(meterRegistry);
+            Gauge.builder("booking.events.queue.capacity", buffer, RingBuffer::capacity)
+                    .tag("subscriber", name)
+                    .register(meterRegistry);
+            this.dropped = Counter.builder("booking.events.dropped")
+                    .description("Events lost because the subscriber buffer stayed full")
+                    .tag("subscriber", name)
+                    .register(meterRegistry);
+            this.failed = Counter.builder("booking.events.failed")
+                    .description("Events of batches the subscriber threw on")
+                    .tag("subscriber", name)
+                    .register(meterRegistry);
+            this.lag = Timer.builder("booking.events.lag")
+                    .description("Time from the booking change to its delivery to the subscriber")
+                    .tag("subscriber", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private void offer(BookingEvent event) {
+            if (buffer.offer(event)) {
+                wakeUp();
+                return;
+            }
+            if (overflowPolicy == OverflowPolicy.BLOCK && running) {
+                long deadline = System.nanoTime() + blockTimeoutNanos;
+                long backoff = 1_000;
+                while (System.nanoTime() < deadline && running) {
+                    wakeUp();
+                    LockSupport.parkNanos(backoff);
+                    if (buffer.offer(event)) {
+                        return;
+                    }
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+                }
+            }
+            dropped.increment();
+        }
+
+        private void wakeUp() {
+            if (idle) {
+                LockSupport.unpark(consumer);
+            }
+        }
+
+        private void start() {
+            consumer = Thread.ofPlatform()
+                    .name("booking-events-" + name)
+                    .daemon(true)
+                    .start(this::consume);
+        }
+
+        private void stop() {
+            LockSupport.unpark(consumer);
+            try {
+                consumer.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void consume() {
+            List<BookingEvent> batch = new ArrayList<>(batchSize);
+            List<BookingEvent> view = Collections.unmodifiableList(batch);
+            // after stop the buffer is drained once more, so committed events are not lost on shutdown
+            while (running || buffer.size() > 0) {
+                if (buffer.drainTo(batch, batchSize) == 0) {
+                    park();
+                    continue;
+                }
+                deliver(view);
+                batch.clear();
+            }
+        }
+
+        private void park() {
+            idle = true;
+            if (running && buffer.size() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+
+        private void deliver(List<BookingEvent> batch) {
+            try {
+                listener.onBookingEvents(batch);
+            } catch (RuntimeException e) {
+                failed.increment(batch.size());
+                log.error("Booking event subscriber {} failed on {} events", name, batch.size(), e);
+            }
+            long now = System.nanoTime();
+            for (BookingEvent event : batch) {
+                lag.record(now - event.occurredNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.event;
+
+import java.util.List;
+
+/**
+ * Subscriber of the {@link BookingEventBus}. Receives committed events in publish order, in batches,
+ * on its own consumer thread, so a slow subscriber delays neither requests nor other subscribers.
+ */
+public interface BookingEventListener {
+    void onBookingEvents(List<BookingEvent> events);
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.feed;
+
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+
+public record BookingChange(long id, Long bookingId, Long itemId, Long bookerId, Long ownerId, BookingStatus status,
+                            LocalDateTime start, LocalDateTime end) {
+}
@@ -0,0 +1,306 @@
+package ru.practicum.shareit.booking.feed;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pushes booking changes from the {@link BookingOutbox} to the booker and the item owner over SSE.
+ * A single poller thread reads the outbox in id order and releases a row only when every smaller id
+ * is released too, waiting up to {@code gap-grace} for a transaction that took an id but hasn't
+ * committed yet. That keeps the event id a safe resume point: a client reconnecting with
+ * {@code Last-Event-ID} is replayed everything after it from the outbox, then joins the live stream.
+ * The poller wakes up on booking events of this instance and every {@code poll-interval} for writes
+ * made elsewhere. Connections hold no thread while idle; a few sender threads write pending events,
+ * and a client that falls {@code max-pending} events behind is disconnected to resume later.
+ */
+@Slf4j
+@Component
+public class BookingFeed implements BookingEventListener, SmartLifecycle {
+    public static final String EVENT_CHANGE = "booking";
+    // the client missed changes that are no longer in the outbox and should reload its lists
+    public static final String EVENT_RESET = "reset";
+
+    private static final int POLL_LIMIT = 1000;
+    private static final int REPLAY_LIMIT = 1000;
+
+    private final BookingOutbox outbox;
+    private final long pollIntervalNanos;
+    private final long gapGraceNanos;
+    private final long heartbeatNanos;
+    private final Duration connectionTimeout;
+    private final Duration retention;
+    private final int maxPending;
+    private final int senderThreads;
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Queue<Subscriber> joining = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicLong sent = new AtomicLong();
+    private volatile boolean running;
+    private volatile Thread poller;
+    private ExecutorService senders;
+    // poller thread state
+    private long watermark;
+    private long prunedUpTo;
+    private long gapSince;
+    private long lastHeartbeat;
+    private long lastPrune;
+
+    public BookingFeed(BookingOutbox outbox, MeterRegistry meterRegistry,
+                       @Value("${shareit.bookings.feed.poll-interval:500ms}") Duration pollInterval,
+                       @Value("${shareit.bookings.feed.gap-grace:5s}") Duration gapGrace,
+                       @Value("${shareit.bookings.feed.heartbeat:30s}") Duration heartbeat,
+                       @Value("${shareit.bookings.feed.connection-timeout:30m}") Duration connectionTimeout,
+                       @Value("${shareit.bookings.feed.retention:1d}") Duration retention,
+                       @Value("${shareit.bookings.feed.max-pending:1000}") int maxPending,
+                       @Value("${shareit.bookings.feed.sender-threads:4}") int senderThreads) {
+        this.outbox = outbox;
+        this.pollIntervalNanos = pollInterval.toNanos();
+        this.gapGraceNanos = gapGrace.toNanos();
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.connectionTimeout = connectionTimeout;
+        this.retention = retention;
+        this.maxPending = maxPending;
+        this.senderThreads = senderThreads;
+        Gauge.builder("booking.feed.connections", connected, AtomicInteger::get)
+                .description("Open booking feed connections")
+                .register(meterRegistry);
+        FunctionCounter.builder("booking.feed.events.sent", sent, AtomicLong::get)
+                .description("Booking changes written to feed connections")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(connectionTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter, lastEventId);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        connected.incrementAndGet();
+        joining.add(subscriber);
+        LockSupport.unpark(poller);
+        return emitter;
+    }
+
+    @Override
+    public void onBookingEvents(List<BookingEvent> events) {
+        LockSupport.unpark(poller);
+    }
+
+    @Override
+    public void start() {
+        watermark = outbox.findLastId();
+        long first = outbox.findFirstId();
+        prunedUpTo = first == 0 ? watermark : first - 1;
+        lastHeartbeat = System.nanoTime();
+        lastPrune = lastHeartbeat;
+        senders = Executors.newFixedThreadPool(senderThreads, Thread.ofPlatform()
+                .name("booking-feed-sender-", 0)
+                .daemon(true)
+                .factory());
+        running = true;
+        poller = Thread.ofPlatform()
+                .name("booking-feed-poller")
+                .daemon(true)
+                .start(this::pollLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        LockSupport.unpark(poller);
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        joining.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // the same phase as the event bus: up before the web server accepts subscriptions
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void pollLoop() {
+        while (running) {
+            boolean more = false;
+            try {
+                join();
+                more = release();
+                housekeeping();
+            } catch (RuntimeException e) {
+                log.warn("Booking feed poll failed", e);
+            }
+            if (!more) {
+                LockSupport.parkNanos(pollIntervalNanos);
+            }
+        }
+    }
+
+    private void join() {
+        Subscriber subscriber;
+        while ((subscriber = joining.poll()) != null) {
+            Long cursor = subscriber.lastEventId;
+            if (cursor != null && cursor < watermark) {
+                List<BookingChange> missed = cursor < prunedUpTo ? List.of()
+                        : outbox.findForUser(subscriber.userId, cursor, watermark, REPLAY_LIMIT);
+                if (cursor < prunedUpTo || missed.size() == REPLAY_LIMIT) {
+                    subscriber.enqueue(SseEmitter.event().id(String.valueOf(watermark)).name(EVENT_RESET).data(""));
+                } else {
+                    missed.forEach(subscriber::enqueue);
+                }
+            }
+            Subscriber joined = subscriber;
+            subscribers.compute(subscriber.userId, (userId, set) -> {
+                Set<Subscriber> users = set == null ? ConcurrentHashMap.newKeySet() : set;
+                users.add(joined);
+                return users;
+            });
+            if (subscriber.closed.get()) {
+                remove(subscriber);
+            }
+        }
+    }
+
+    // returns true if the outbox may hold more committed rows than one poll returned
+    private boolean release() {
+        List<BookingChange> changes = outbox.findAfter(watermark, POLL_LIMIT);
+        for (BookingChange change : changes) {
+            if (change.id() != watermark + 1) {
+                long now = System.nanoTime();
+                if (gapSince == 0) {
+                    gapSince = now;
+                }
+                if (now - gapSince < gapGraceNanos) {
+                    return false;
+                }
+                // the missing ids belong to rolled back or abandoned transactions
+            }
+            gapSince = 0;
+            watermark = change.id();
+            deliver(change, change.bookerId());
+            if (!change.ownerId().equals(change.bookerId())) {
+                deliver(change, change.ownerId());
+            }
+        }
+        return changes.size() == POLL_LIMIT;
+    }
+
+    private void deliver(BookingChange change, Long userId) {
+        Set<Subscriber> users = subscribers.get(userId);
+        if (users != null) {
+            users.forEach(subscriber -> subscriber.enqueue(change));
+        }
+    }
+
+    private void housekeeping() {
+        long now = System.nanoTime();
+        if (now - lastHeartbeat >= heartbeatNanos) {
+            lastHeartbeat = now;
+            subscribers.values().forEach(set -> set.forEach(subscriber ->
+                    subscriber.enqueue(SseEmitter.event().comment("heartbeat"))));
+        }
+        if (now - lastPrune >= TimeUnit.MINUTES.toNanos(1)) {
+            lastPrune = now;
+            prunedUpTo = Math.max(prunedUpTo, outbox.deleteCreatedBefore(LocalDateTime.now().minus(retention)));
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            connected.decrementAndGet();
+        }
+        subscribers.computeIfPresent(subscriber.userId, (userId, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Long lastEventId;
+        private final Queue<SseEmitter.SseEventBuilder> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Long userId, SseEmitter emitter, Long lastEventId) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.lastEventId = lastEventId;
+        }
+
+        private void enqueue(BookingChange change) {
+            enqueue(SseEmitter.event()
+                    .id(String.valueOf(change.id()))
+                    .name(EVENT_CHANGE)
+                    .data(BookingMapper.toChangeDto(change), MediaType.APPLICATION_JSON));
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (pending.incrementAndGet() > maxPending) {
+                // too slow to keep up; it reconnects with its last event id and catches up from the outbox
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            mailbox.add(event);
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            SseEmitter.SseEventBuilder event;
+            while ((event = mailbox.poll()) != null) {
+                pending.decrementAndGet();
+                try {
+                    emitter.send(event);
+                    sent.incrementAndGet();
+                } catch (IOException | IllegalStateException e) {
+                    remove(this);
+                    mailbox.clear();
+                    return;
+                }
+            }
+            sending.set(false);
+            if (!mailbox.isEmpty() && sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+    }
+}
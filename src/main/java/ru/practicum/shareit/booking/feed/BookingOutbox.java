@@ -0,0 +1,93 @@
+package ru.practicum.shareit.booking.feed;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Booking status changes, appended in the transaction that makes them, so the feed sees
+ * exactly the committed changes. Ids grow with every append, but transactions may commit
+ * out of id order; {@link BookingFeed} deals with the gaps that leaves.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingOutbox {
+    private static final String INSERT = "INSERT INTO booking_outbox " +
+            "(booking_id, item_id, booker_id, owner_id, status, start_date, end_date, created_at) " +
+            "VALUES (:bookingId, :itemId, :bookerId, :ownerId, :status, :start, :end, :createdAt)";
+    private static final String COLUMNS = "SELECT id, booking_id, item_id, booker_id, owner_id, status, " +
+            "start_date, end_date FROM booking_outbox ";
+    private static final RowMapper<BookingChange> ROW_MAPPER = (rs, rowNum) -> new BookingChange(
+            rs.getLong("id"),
+            rs.getLong("booking_id"),
+            rs.getLong("item_id"),
+            rs.getLong("booker_id"),
+            rs.getLong("owner_id"),
+            BookingStatus.valueOf(rs.getString("status")),
+            rs.getTimestamp("start_date").toLocalDateTime(),
+            rs.getTimestamp("end_date").toLocalDateTime());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void append(Collection<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        SqlParameterSource[] rows = bookings.stream()
+                .map(booking -> new MapSqlParameterSource()
+                        .addValue("bookingId", booking.getId())
+                        .addValue("itemId", booking.getItem().getId())
+                        .addValue("bookerId", booking.getBooker().getId())
+                        .addValue("ownerId", booking.getItem().getOwner().getId())
+                        .addValue("status", booking.getStatus().name())
+                        .addValue("start", booking.getStart())
+                        .addValue("end", booking.getEnd())
+                        .addValue("createdAt", now))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    public List<BookingChange> findAfter(long after, int limit) {
+        return jdbcTemplate.query(COLUMNS + "WHERE id > :after ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource("after", after).addValue("limit", limit), ROW_MAPPER);
+    }
+
+    public List<BookingChange> findForUser(Long userId, long after, long upTo, int limit) {
+        return jdbcTemplate.query(COLUMNS + "WHERE id > :after AND id <= :upTo " +
+                        "AND (booker_id = :userId OR owner_id = :userId) ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource("after", after)
+                        .addValue("upTo", upTo)
+                        .addValue("userId", userId)
+                        .addValue("limit", limit), ROW_MAPPER);
+    }
+
+    public long findLastId() {
+        Long last = jdbcTemplate.queryForObject("SELECT MAX(id) FROM booking_outbox",
+                new MapSqlParameterSource(), Long.class);
+        return last == null ? 0 : last;
+    }
+
+    public long findFirstId() {
+        Long first = jdbcTemplate.queryForObject("SELECT MIN(id) FROM booking_outbox",
+                new MapSqlParameterSource(), Long.class);
+        return first == null ? 0 : first;
+    }
+
+    // returns the highest deleted id, or 0 if nothing was old enough
+    public long deleteCreatedBefore(LocalDateTime before) {
+        Long deleted = jdbcTemplate.queryForObject("WITH deleted AS (DELETE FROM booking_outbox " +
+                        "WHERE created_at < :before RETURNING id) SELECT MAX(id) FROM deleted",
+                new MapSqlParameterSource("before", before), Long.class);
+        return deleted == null ? 0 : deleted;
+    }
+}
@@ -1,78 +1,186 @@
 package ru.practicum.shareit.booking.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingPageQuery;
+import ru.practicum.shareit.booking.BookingPeriod;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.archive.BookingArchive;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingEventType;
 import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.event.BookingEventBus;
+import ru.practicum.shareit.booking.feed.BookingFeed;
+import ru.practicum.shareit.booking.feed.BookingOutbox;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.config.MetricsConfig;
+import ru.practicum.shareit.error.ValidationMarker;
 import ru.practicum.shareit.error.exception.*;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemCache;
+import ru.practicum.shareit.item.ItemOwnerCache;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.OwnedItemView;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserCache;
+import ru.practicum.shareit.user.UserView;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int EXPORT_CHUNK_ROWS = Integer.parseInt(BookingRepository.EXPORT_FETCH_SIZE);
+
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingArchive bookingArchive;
+    private final UserCache userCache;
     private final ItemRepository itemRepository;
+    private final ItemCache itemCache;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingEventBus bookingEventBus;
+    private final BookingOutbox bookingOutbox;
+    private final BookingFeed bookingFeed;
+    private final ItemOwnerCache itemOwnerCache;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final Validator validator;
 
     @Override
     @Transactional
     public BookingResponseDto create(BookingRequestDto bookingRequestDto, Long userId) {
 
-        User booker = userRepository.findById(userId)
+        User booker = userCache.find(userId).map(UserView::toUser)
                 .orElseThrow(() -> new NotFoundException("User with id - %d not found"
                         .formatted(userId))
                 );
 
-        Item item = itemRepository.findById(bookingRequestDto
-                .getItemId()).orElseThrow(() -> new NotFoundException("Item with id - %d not found"
-                .formatted(bookingRequestDto.getItemId()))
-        );
+        Item item = itemCache.find(bookingRequestDto.getItemId()).map(OwnedItemView::toItem)
+                .orElseThrow(() -> new NotFoundException("Item with id - %d not found"
+                        .formatted(bookingRequestDto.getItemId()))
+                );
 
-        if (!item.getAvailable()) {
-            throw new UnavailableItemException("This item is not available for booking!");
-        }
+        Booking booking = toNewBooking(bookingRequestDto, item, booker);
 
-        if (bookingRequestDto.getStart().isAfter(bookingRequestDto.getEnd())) {
-            throw new DateValidationException("Start date must be before end date.Start: " + bookingRequestDto.getStart());
-        }
+        Booking saved = bookingIntervalIndex.withItemLock(item.getId(), () -> {
+            if (!bookingIntervalIndex.isFree(item.getId(), booking.getStart(), booking.getEnd())
+                    || isBookedElsewhere(booking, lockBookedPeriods(List.of(booking)))) {
+                throw new BookingOverlapException("Item is already booked for the selected period.");
+            }
 
-        boolean isItemAvailable = bookingRepository.findOverlappingBookings(
-                item.getId(),
-                bookingRequestDto.getStart(),
-                bookingRequestDto.getEnd()
-        ).isEmpty();
+            Booking created = bookingRepository.save(booking);
+            bookingIntervalIndex.add(created);
+            return created;
+        });
+        bookingOutbox.append(List.of(saved));
+        itemOwnerCache.evict(item.getId());
+        bookingEventBus.publish(BookingEventType.CREATED, saved);
 
-        if (!isItemAvailable) {
-            throw new BookingOverlapException("Item is already booked for the selected period.");
-        }
+        return BookingMapper.toResponseDto(saved);
+    }
 
-        Booking booking = Booking.builder()
-                .start(bookingRequestDto.getStart())
-                .end(bookingRequestDto.getEnd())
-                .status(BookingStatus.WAITING)
-                .item(item)
-                .booker(booker)
-                .build();
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> createBatch(List<BookingRequestDto> bookingRequestDtos, Long userId) {
+        User booker = userCache.find(userId).map(UserView::toUser)
+                .orElseThrow(() -> new NotFoundException("User with id - %d not found"
+                        .formatted(userId))
+                );
+
+        Set<Long> itemIds = bookingRequestDtos.stream()
+                .map(BookingRequestDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingRequestDtos.size()];
+        Map<Integer, Booking> accepted = new LinkedHashMap<>();
+
+        bookingIntervalIndex.withItemsLock(items.keySet(), () -> {
+            bookingIntervalIndex.preload(items.keySet());
+            Map<Long, List<Booking>> acceptedByItem = new HashMap<>();
+
+            for (int i = 0; i < bookingRequestDtos.size(); i++) {
+                try {
+                    Booking booking = toBatchBooking(bookingRequestDtos.get(i), items, booker,
+                            acceptedByItem);
+                    acceptedByItem.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>()).add(booking);
+                    accepted.put(i, booking);
+                } catch (ConstraintViolationException | NotFoundException | UnavailableItemException |
+                         DateValidationException | BookingOverlapException e) {
+                    results[i] = BookingBatchResultDto.builder().index(i).success(false).error(e.getMessage()).build();
+                }
+            }
+
+            Map<Long, List<BookingPeriod>> booked = lockBookedPeriods(accepted.values());
+            accepted.entrySet().removeIf(entry -> {
+                if (!isBookedElsewhere(entry.getValue(), booked)) {
+                    return false;
+                }
+                results[entry.getKey()] = BookingBatchResultDto.builder().index(entry.getKey()).success(false)
+                        .error("Item is already booked for the selected period.").build();
+                return true;
+            });
 
-        return BookingMapper.toResponseDto(bookingRepository.save(booking));
+            List<Booking> created = bookingRepository.saveAllAndFlush(accepted.values());
+            created.forEach(bookingIntervalIndex::add);
+            return created;
+        });
+        bookingOutbox.append(accepted.values());
+        itemOwnerCache.evictAll(accepted.values().stream().map(booking -> booking.getItem().getId()).toList());
+        accepted.values().forEach(booking -> bookingEventBus.publish(BookingEventType.CREATED, booking));
+
+        accepted.forEach((i, booking) -> results[i] = BookingBatchResultDto.builder()
+                .index(i)
+                .success(true)
+                .booking(BookingMapper.toResponseDto(booking))
+                .build());
+        return List.of(results);
     }
 
     @Override
+    @Transactional
     public BookingResponseDto setApprove(Long bookingId, Long userId, Boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId).orElseThrow(
                 () -> new NotFoundException("Booking with id - %d not found".formatted(bookingId))
         );
 
@@ -80,77 +188,262 @@ public class BookingServiceImpl implements BookingService {
             throw new OwnerException("You are not the owner of the item.");
         }
 
-        if (booking.getStatus().equals(BookingStatus.WAITING)) {
-            if (approved) {
-                booking.setStatus(BookingStatus.APPROVED);
+        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+            throw new BookingStatusConflictException("To set booking status it should be WAITING.");
+        }
+
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatusIfWaiting(bookingId, status) == 0) {
+            throw new BookingStatusConflictException("Booking with id - %d was approved or rejected concurrently."
+                    .formatted(bookingId));
+        }
+        booking.setStatus(status);
+        bookingOutbox.append(List.of(booking));
+
+        applyStatusChange(booking);
+        itemOwnerCache.evict(booking.getItem().getId());
+        return BookingMapper.toResponseDto(booking);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> setApproveBatch(List<Long> bookingIds, Long userId, Boolean approved) {
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        Set<Long> updated = Set.copyOf(bookingRepository.updateWaitingStatuses(Set.copyOf(bookingIds), userId,
+                status));
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemAndBookerById(Set.copyOf(bookingIds)).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingIds.size());
+        for (int i = 0; i < bookingIds.size(); i++) {
+            Long bookingId = bookingIds.get(i);
+            Booking booking = bookings.get(bookingId);
+            BookingBatchResultDto.BookingBatchResultDtoBuilder result = BookingBatchResultDto.builder().index(i);
+            if (updated.contains(bookingId)) {
+                result.success(true).booking(BookingMapper.toResponseDto(booking));
+            } else if (booking == null) {
+                result.error("Booking with id - %d not found".formatted(bookingId));
+            } else if (!booking.getItem().getOwner().getId().equals(userId)) {
+                result.error("You are not the owner of the item.");
             } else {
-                booking.setStatus(BookingStatus.REJECTED);
+                result.error("To set booking status it should be WAITING.");
             }
-        } else {
-            throw new BookingException("To set booking status it should be WAITING.");
+            results.add(result.build());
         }
 
-        return BookingMapper.toResponseDto(bookingRepository.save(booking));
+        List<Booking> changed = updated.stream().map(bookings::get).toList();
+        bookingOutbox.append(changed);
+        changed.forEach(this::applyStatusChange);
+        itemOwnerCache.evictAll(changed.stream().map(booking -> booking.getItem().getId()).distinct().toList());
+        return results;
+    }
+
+    @Override
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        userCache.find(userId)
+                .orElseThrow(() -> new NotFoundException("User with id - %d not found"
+                        .formatted(userId))
+                );
+
+        return bookingFeed.subscribe(userId, lastEventId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public BookingResponseDto getBooking(Long bookingId, Long userId) {
 
-        Booking booking = bookingRepository.findByIdAndUserId(bookingId, userId).orElseThrow(
-                () -> new NotFoundException("Booking with id - %d not found or access denied".formatted(bookingId))
-        );
+        return bookingRepository.findByIdAndUserId(bookingId, userId)
+                .map(BookingMapper::toResponseDto)
+                .or(() -> archivedBookingRepository.findByIdAndUserId(bookingId, userId)
+                        .map(BookingMapper::toResponseDto))
+                .orElseThrow(() -> new NotFoundException("Booking with id - %d not found or access denied"
+                        .formatted(bookingId)));
+    }
 
-        return BookingMapper.toResponseDto(booking);
+    @Override
+    @Transactional(readOnly = true)
+    public BookingPageDto getBookings(Long userId, BookingState state, String cursor, Integer size) {
+        userCache.find(userId)
+                .orElseThrow(() -> new NotFoundException("User with id - %d not found"
+                        .formatted(userId))
+                );
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingPageQuery page = BookingPageQuery.of(state, BookingCursor.decode(cursor), now);
+        int limit = fetchLimit(size);
+        List<BookingResponseDto> bookings = bookingRepository.findBookerPage(userId, page, Limit.of(limit)).stream()
+                .map(BookingMapper::toResponseDto)
+                .toList();
+        if (bookingArchive.reaches(page, bookings, limit, now)) {
+            bookings = BookingArchive.merge(bookings, archivedBookingRepository.findBookerPage(userId, page,
+                    Limit.of(limit)).stream().map(BookingMapper::toResponseDto).toList(), limit);
+        }
+        return toPage(bookings, size);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingResponseDto> getBookings(Long userId, BookingState state) {
-        userRepository.findById(userId)
+    public BookingPageDto getBookingsByOwnerItems(Long userId, BookingState state, String cursor, Integer size) {
+        userCache.find(userId)
                 .orElseThrow(() -> new NotFoundException("User with id - %d not found"
                         .formatted(userId))
                 );
 
-        return switch (state) {
-            case ALL -> bookingRepository.findByBookerIdOrderByStartDesc(userId).stream().map(BookingMapper::toResponseDto).toList();
-            case CURRENT ->
-                    bookingRepository.findCurrentBookings(userId, LocalDateTime.now()).stream().map(BookingMapper::toResponseDto).toList();
-            case PAST ->
-                    bookingRepository.findPastBookings(userId, LocalDateTime.now()).stream().map(BookingMapper::toResponseDto).toList();
-            case FUTURE ->
-                    bookingRepository.findFutureBookings(userId, LocalDateTime.now()).stream().map(BookingMapper::toResponseDto).toList();
-            case WAITING ->
-                    bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING).stream().map(BookingMapper::toResponseDto).toList();
-            case REJECTED ->
-                    bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED).stream().map(BookingMapper::toResponseDto).toList();
-        };
+        if (!itemRepository.existsByOwnerId(userId)) {
+            throw new OwnerException("You are not owner of any item.");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingPageQuery page = BookingPageQuery.of(state, BookingCursor.decode(cursor), now);
+        int limit = fetchLimit(size);
+        List<BookingResponseDto> bookings = bookingRepository.findOwnerPage(userId, page, Limit.of(limit)).stream()
+                .map(BookingMapper::toResponseDto)
+                .toList();
+        if (bookingArchive.reaches(page, bookings, limit, now)) {
+            bookings = BookingArchive.merge(bookings, archivedBookingRepository.findOwnerPage(userId, page,
+                    Limit.of(limit)).stream().map(BookingMapper::toResponseDto).toList(), limit);
+        }
+        return toPage(bookings, size);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingResponseDto> getBookingsByOwnerItems(Long userId, BookingState state) {
-        userRepository.findById(userId)
+    public void exportBookings(Long userId, OutputStream out) {
+        userCache.find(userId)
                 .orElseThrow(() -> new NotFoundException("User with id - %d not found"
                         .formatted(userId))
                 );
 
-        itemRepository.findByOwnerId(userId).stream().findFirst().orElseThrow(
-                () -> new OwnerException("You are not owner of any item.")
-        );
+        writeNdjson(BookingArchive.merge(bookingRepository.streamByBookerId(userId).map(BookingMapper::toResponseDto),
+                archivedBookingRepository.streamByBookerId(userId).map(BookingMapper::toResponseDto)), out);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBookingsByOwnerItems(Long userId, OutputStream out) {
+        userCache.find(userId)
+                .orElseThrow(() -> new NotFoundException("User with id - %d not found"
+                        .formatted(userId))
+                );
+
+        if (!itemRepository.existsByOwnerId(userId)) {
+            throw new OwnerException("You are not owner of any item.");
+        }
+
+        writeNdjson(BookingArchive.merge(
+                bookingRepository.streamByItemOwnerId(userId).map(BookingMapper::toResponseDto),
+                archivedBookingRepository.streamByItemOwnerId(userId).map(BookingMapper::toResponseDto)), out);
+    }
+
+    private void writeNdjson(Stream<BookingResponseDto> bookings, OutputStream out) {
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+        int written = 0;
+        try (bookings; JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<BookingResponseDto> rows = bookings.iterator();
+            while (rows.hasNext()) {
+                writer.writeValue(generator, rows.next());
+                generator.writeRaw('\n');
+                // written rows are never read again, so drop them from the persistence context
+                if (++written % EXPORT_CHUNK_ROWS == 0) {
+                    entityManager.clear();
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        return switch (state) {
-            case ALL -> bookingRepository.findByBookerIdOrderByStartDesc(userId).stream().map(BookingMapper::toResponseDto).toList();
-            case CURRENT ->
-                    bookingRepository.findCurrentBookings(userId, LocalDateTime.now()).stream().map(BookingMapper::toResponseDto).toList();
-            case PAST ->
-                    bookingRepository.findPastBookings(userId, LocalDateTime.now()).stream().map(BookingMapper::toResponseDto).toList();
-            case FUTURE ->
-                    bookingRepository.findFutureBookings(userId, LocalDateTime.now()).stream().map(BookingMapper::toResponseDto).toList();
-            case WAITING ->
-                    bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING).stream().map(BookingMapper::toResponseDto).toList();
-            case REJECTED ->
-                    bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED).stream().map(BookingMapper::toResponseDto).toList();
-        };
+    private void applyStatusChange(Booking booking) {
+        if (booking.getStatus() == BookingStatus.REJECTED) {
+            bookingIntervalIndex.release(booking);
+            bookingEventBus.publish(BookingEventType.REJECTED, booking);
+        } else {
+            bookingEventBus.publish(BookingEventType.APPROVED, booking);
+        }
+    }
+
+    private Booking toBatchBooking(BookingRequestDto bookingRequestDto, Map<Long, Item> items, User booker,
+                                   Map<Long, List<Booking>> acceptedByItem) {
+        Set<ConstraintViolation<BookingRequestDto>> violations =
+                validator.validate(bookingRequestDto, ValidationMarker.OnCreate.class);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        Item item = items.get(bookingRequestDto.getItemId());
+        if (item == null) {
+            throw new NotFoundException("Item with id - %d not found".formatted(bookingRequestDto.getItemId()));
+        }
+
+        Booking booking = toNewBooking(bookingRequestDto, item, booker);
+
+        boolean overlapsBatch = acceptedByItem.getOrDefault(item.getId(), List.of()).stream()
+                .anyMatch(other -> other.getStart().isBefore(booking.getEnd())
+                        && other.getEnd().isAfter(booking.getStart()));
+        if (overlapsBatch || !bookingIntervalIndex.isFree(item.getId(), booking.getStart(), booking.getEnd())) {
+            throw new BookingOverlapException("Item is already booked for the selected period.");
+        }
+        return booking;
+    }
+
+    // the index only holds what this instance booked: the item rows stay locked until commit, which serializes
+    // bookings of an item across instances, and the periods read after that include what the others committed
+    private Map<Long, List<BookingPeriod>> lockBookedPeriods(Collection<Booking> bookings) {
+        Set<Long> itemIds = bookings.stream().map(booking -> booking.getItem().getId()).collect(Collectors.toSet());
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        itemRepository.lockAllById(itemIds);
+        return bookingRepository.findActivePeriods(itemIds, LocalDateTime.now(),
+                        BookingIntervalIndex.BLOCKING_STATUSES).stream()
+                .collect(Collectors.groupingBy(BookingPeriod::getItemId));
+    }
+
+    private boolean isBookedElsewhere(Booking booking, Map<Long, List<BookingPeriod>> booked) {
+        Long itemId = booking.getItem().getId();
+        boolean overlaps = booked.getOrDefault(itemId, List.of()).stream()
+                .anyMatch(period -> period.getStart().isBefore(booking.getEnd())
+                        && period.getEnd().isAfter(booking.getStart()));
+        if (overlaps) {
+            bookingIntervalIndex.refresh(itemId);
+        }
+        return overlaps;
+    }
+
+    private Booking toNewBooking(BookingRequestDto bookingRequestDto, Item item, User booker) {
+        if (!item.getAvailable()) {
+            throw new UnavailableItemException("This item is not available for booking!");
+        }
+
+        if (bookingRequestDto.getStart().isAfter(bookingRequestDto.getEnd())) {
+            throw new DateValidationException("Start date must be before end date.Start: " + bookingRequestDto.getStart());
+        }
+
+        return Booking.builder()
+                .start(bookingRequestDto.getStart())
+                .end(bookingRequestDto.getEnd())
+                .status(BookingStatus.WAITING)
+                .item(item)
+                .booker(booker)
+                .build();
+    }
+
+    // one booking past the page tells whether there is a next one; without a size every booking is read
+    private static int fetchLimit(Integer size) {
+        return size == null ? Integer.MAX_VALUE : size + 1;
+    }
+
+    private BookingPageDto toPage(List<BookingResponseDto> bookings, Integer size) {
+        boolean hasNext = size != null && bookings.size() > size;
+        List<BookingResponseDto> page = hasNext ? bookings.subList(0, size) : bookings;
+
+        return BookingPageDto.builder()
+                .bookings(page)
+                .nextCursor(hasNext ? BookingCursor.after(page.getLast()).encode() : null)
+                .build();
     }
 }
@@ -0,0 +1,209 @@
+package ru.practicum.shareit.booking.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingPeriod;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of booked periods per item. Items are loaded lazily from the bookings table
+ * and kept up to date by the booking service, so overlap checks don't hit the database.
+ * All changes for an item happen under its stripe lock, which turns check-then-insert into one atomic step.
+ * At startup every item with active bookings is loaded in chunks; from then on an item missing
+ * from the index has no active bookings, which lets availability be checked for the whole catalog.
+ * The index only sees bookings made through this instance, so it is a fast pre-check: the booking
+ * service confirms a free period against the database and {@link #refresh refreshes} items found stale.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    public static final Set<BookingStatus> BLOCKING_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private static final int STRIPES = 256;
+    private static final int LOAD_CHUNK = 1_000;
+
+    private final BookingRepository bookingRepository;
+    private final ConcurrentMap<Long, ItemIntervals> items = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = createLocks();
+    private volatile boolean complete;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        long lastItemId = 0;
+        List<Long> chunk;
+        do {
+            chunk = bookingRepository.findItemIdsWithActivePeriods(lastItemId, LocalDateTime.now(),
+                    BLOCKING_STATUSES, Limit.of(LOAD_CHUNK));
+            List<Long> itemIds = chunk;
+            withItemsLock(itemIds, () -> {
+                preload(itemIds);
+                return null;
+            });
+            if (!chunk.isEmpty()) {
+                lastItemId = chunk.getLast();
+            }
+        } while (chunk.size() == LOAD_CHUNK);
+        complete = true;
+        log.info("Booking interval index loaded {} items in {} ms", items.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Lock-free check of the latest snapshots, for filtering many items at once.
+     * Until the startup load completes, items not loaded yet are loaded under their lock.
+     */
+    public LongPredicate availableDuring(LocalDateTime start, LocalDateTime end) {
+        long startMicros = toMicros(start);
+        long endMicros = toMicros(end);
+        return itemId -> {
+            ItemIntervals intervals = items.get(itemId);
+            if (intervals != null) {
+                return !intervals.overlaps(startMicros, endMicros);
+            }
+            return complete || withItemLock(itemId, () -> isFree(itemId, start, end));
+        };
+    }
+
+    public <T> T withItemLock(Long itemId, Supplier<T> action) {
+        ReentrantLock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T withItemsLock(Collection<Long> itemIds, Supplier<T> action) {
+        // stripes are always taken in ascending order, so concurrent batches can't deadlock
+        int[] stripes = itemIds.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                locks[stripe].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    public void preload(Collection<Long> itemIds) {
+        List<Long> missing = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            checkLocked(itemId);
+            if (!items.containsKey(itemId)) {
+                missing.add(itemId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<Long, List<BookingPeriod>> periods = bookingRepository
+                .findActivePeriods(missing, LocalDateTime.now(), BLOCKING_STATUSES).stream()
+                .collect(Collectors.groupingBy(BookingPeriod::getItemId));
+        for (Long itemId : missing) {
+            items.put(itemId, ItemIntervals.of(periods.getOrDefault(itemId, List.of())));
+        }
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return !loaded(itemId).overlaps(toMicros(start), toMicros(end));
+    }
+
+    public void refresh(Long itemId) {
+        checkLocked(itemId);
+        items.put(itemId, ItemIntervals.of(bookingRepository.findActivePeriods(itemId, LocalDateTime.now(),
+                BLOCKING_STATUSES)));
+    }
+
+    public void add(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Long bookingId = booking.getId();
+        loaded(itemId).add(bookingId, toMicros(booking.getStart()), toMicros(booking.getEnd()), nowMicros());
+        TransactionHooks.afterRollback(() -> remove(itemId, bookingId));
+    }
+
+    public void release(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Long bookingId = booking.getId();
+        TransactionHooks.afterCommit(() -> remove(itemId, bookingId));
+    }
+
+    static long toMicros(LocalDateTime dateTime) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), dateTime);
+    }
+
+    private void remove(Long itemId, Long bookingId) {
+        withItemLock(itemId, () -> {
+            ItemIntervals intervals = items.get(itemId);
+            return intervals != null && intervals.remove(bookingId, nowMicros());
+        });
+    }
+
+    private ItemIntervals loaded(Long itemId) {
+        checkLocked(itemId);
+        ItemIntervals intervals = items.get(itemId);
+        if (intervals == null) {
+            intervals = ItemIntervals.of(bookingRepository.findActivePeriods(itemId, LocalDateTime.now(),
+                    BLOCKING_STATUSES));
+            items.put(itemId, intervals);
+        }
+        return intervals;
+    }
+
+    private void checkLocked(Long itemId) {
+        if (!lockFor(itemId).isHeldByCurrentThread()) {
+            throw new IllegalStateException("Item %d must be locked before accessing its booked periods"
+                    .formatted(itemId));
+        }
+    }
+
+    private ReentrantLock lockFor(Long itemId) {
+        return locks[stripeOf(itemId)];
+    }
+
+    private int stripeOf(Long itemId) {
+        return Long.hashCode(itemId * 0x9E3779B97F4A7C15L) & (STRIPES - 1);
+    }
+
+    private static long nowMicros() {
+        return toMicros(LocalDateTime.now());
+    }
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+}
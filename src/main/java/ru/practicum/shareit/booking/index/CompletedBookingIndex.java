@@ -0,0 +1,95 @@
+package ru.practicum.shareit.booking.index;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.enums.BookingEventType;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Answers whether a user has a finished approved booking of an item, the condition for commenting on it.
+ * Once true the answer never changes, so positive answers are kept in memory. Bookings approved
+ * while the app runs arrive as events, wait in a queue ordered by end and become positive answers
+ * once they end; anything else is settled by an indexed EXISTS query, on the archive too if need be.
+ * The queue is drained of ended bookings on every check and every batch of events, and holds at most
+ * {@code max-pending} bookings; approvals past that are left to the query.
+ */
+@Component
+public class CompletedBookingIndex implements BookingEventListener {
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final Cache<BookerItem, Boolean> completed;
+    private final Queue<PendingCompletion> pending = new PriorityBlockingQueue<>(64,
+            Comparator.comparing(PendingCompletion::end));
+    private final int maxPending;
+
+    public CompletedBookingIndex(BookingRepository bookingRepository,
+                                 ArchivedBookingRepository archivedBookingRepository,
+                                 @Value("${shareit.bookings.completed-index.maximum-size:1000000}") long maximumSize,
+                                 @Value("${shareit.bookings.completed-index.max-pending:100000}") int maxPending) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.completed = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        this.maxPending = maxPending;
+    }
+
+    public boolean hasCompleted(Long bookerId, Long itemId, LocalDateTime now) {
+        promoteEnded(now);
+        BookerItem key = new BookerItem(bookerId, itemId);
+        if (completed.getIfPresent(key) != null) {
+            return true;
+        }
+        boolean found = bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(bookerId, itemId,
+                BookingStatus.APPROVED, now)
+                || archivedBookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(bookerId, itemId,
+                BookingStatus.APPROVED, now);
+        if (found) {
+            completed.put(key, Boolean.TRUE);
+        }
+        return found;
+    }
+
+    @Override
+    public void onBookingEvents(List<BookingEvent> events) {
+        promoteEnded(LocalDateTime.now());
+        for (BookingEvent event : events) {
+            // events come from one consumer thread, so only checks can shrink the queue in between
+            if (event.type() == BookingEventType.APPROVED && pending.size() < maxPending) {
+                pending.add(new PendingCompletion(new BookerItem(event.bookerId(), event.itemId()), event.end()));
+            }
+        }
+    }
+
+    private void promoteEnded(LocalDateTime now) {
+        PendingCompletion head;
+        while ((head = pending.peek()) != null && head.end().isBefore(now)) {
+            PendingCompletion polled = pending.poll();
+            if (polled == null) {
+                return;
+            }
+            if (!polled.end().isBefore(now)) {
+                // another thread took the ended head first, this one is still running
+                pending.add(polled);
+                return;
+            }
+            completed.put(polled.key(), Boolean.TRUE);
+        }
+    }
+
+    private record BookerItem(long bookerId, long itemId) {
+    }
+
+    private record PendingCompletion(BookerItem key, LocalDateTime end) {
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.booking.index;
+
+import ru.practicum.shareit.booking.BookingPeriod;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Booked periods of a single item kept as parallel primitive arrays sorted by start.
+ * Readers work on an immutable snapshot, writers must hold the item stripe lock.
+ */
+final class ItemIntervals {
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    static ItemIntervals of(List<BookingPeriod> periods) {
+        List<BookingPeriod> sorted = periods.stream()
+                .sorted(Comparator.comparing(BookingPeriod::getStart))
+                .toList();
+        Snapshot loaded = new Snapshot(sorted.size());
+        int copied = 0;
+        for (BookingPeriod period : sorted) {
+            copied = loaded.append(copied, period.getId(),
+                    BookingIntervalIndex.toMicros(period.getStart()), BookingIntervalIndex.toMicros(period.getEnd()));
+        }
+        ItemIntervals intervals = new ItemIntervals();
+        intervals.snapshot = loaded.seal(copied);
+        return intervals;
+    }
+
+    boolean overlaps(long start, long end) {
+        Snapshot current = snapshot;
+        int candidates = firstStartNotBefore(current.starts, current.size, end);
+        return candidates > 0 && current.maxEnds[candidates - 1] > start;
+    }
+
+    void add(long id, long start, long end, long now) {
+        Snapshot current = snapshot;
+        int size = current.size;
+        Snapshot next = new Snapshot(size + 1);
+        int insertAt = firstStartNotBefore(current.starts, size, start);
+        int copied = 0;
+        for (int i = 0; i <= size; i++) {
+            if (i == insertAt) {
+                copied = next.append(copied, id, start, end);
+            }
+            if (i < size && current.ends[i] > now) {
+                copied = next.append(copied, current.ids[i], current.starts[i], current.ends[i]);
+            }
+        }
+        snapshot = next.seal(copied);
+    }
+
+    boolean remove(long id, long now) {
+        Snapshot current = snapshot;
+        Snapshot next = new Snapshot(current.size);
+        int copied = 0;
+        boolean removed = false;
+        for (int i = 0; i < current.size; i++) {
+            if (current.ids[i] == id) {
+                removed = true;
+            } else if (current.ends[i] > now) {
+                copied = next.append(copied, current.ids[i], current.starts[i], current.ends[i]);
+            }
+        }
+        snapshot = next.seal(copied);
+        return removed;
+    }
+
+    private static int firstStartNotBefore(long[] starts, int size, long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(0);
+
+        private long[] ids;
+        private long[] starts;
+        private long[] ends;
+        // maxEnds[i] is the latest end among the first i + 1 periods, which keeps
+        // the overlap check logarithmic even if legacy rows overlap each other
+        private long[] maxEnds;
+        private int size;
+
+        private Snapshot(int capacity) {
+            ids = new long[capacity];
+            starts = new long[capacity];
+            ends = new long[capacity];
+            maxEnds = new long[capacity];
+        }
+
+        private int append(int position, long id, long start, long end) {
+            ids[position] = id;
+            starts[position] = start;
+            ends[position] = end;
+            maxEnds[position] = position == 0 ? end : Math.max(maxEnds[position - 1], end);
+            return position + 1;
+        }
+
+        private Snapshot seal(int length) {
+            if (length < ids.length) {
+                ids = Arrays.copyOf(ids, length);
+                starts = Arrays.copyOf(starts, length);
+                ends = Arrays.copyOf(ends, length);
+                maxEnds = Arrays.copyOf(maxEnds, length);
+            }
+            size = length;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.reactive;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingState;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "/rx/bookings")
+@RequiredArgsConstructor
+public class BookingReactiveController {
+    private final BookingReactiveService bookingReactiveService;
+
+    @GetMapping
+    public Mono<ResponseEntity<List<BookingResponseDto>>> getBookings(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(value = "state", required = false, defaultValue = "ALL") BookingState state,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false)
+            @Positive @Max(BookingController.MAX_PAGE_SIZE) Integer size) {
+
+        return bookingReactiveService.getBookings(userId, state, cursor,
+                BookingController.pageSize(cursor, size)).map(this::toResponse);
+    }
+
+    @GetMapping("/owner")
+    public Mono<ResponseEntity<List<BookingResponseDto>>> getBookingsByOwnerItems(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(value = "state", required = false, defaultValue = "ALL") BookingState state,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false)
+            @Positive @Max(BookingController.MAX_PAGE_SIZE) Integer size) {
+
+        return bookingReactiveService.getBookingsByOwnerItems(userId, state, cursor,
+                BookingController.pageSize(cursor, size)).map(this::toResponse);
+    }
+
+    private ResponseEntity<List<BookingResponseDto>> toResponse(BookingPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(BookingController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking.reactive;
+
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.BookingPageQuery;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Booking pages over R2DBC with the filter and keyset order of {@code BookingRepository.PAGE_FILTER},
+ * mapped straight into response DTOs from one joined row per booking, from {@code bookings} or
+ * {@code bookings_archive}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingReactiveRepository {
+    private static final String SELECT = "SELECT b.id, b.start_date, b.end_date, b.status, " +
+            "i.id AS item_id, i.name AS item_name, i.description AS item_description, " +
+            "i.is_available AS item_available, u.id AS booker_id, u.name AS booker_name, u.email AS booker_email " +
+            "FROM %s b JOIN items i ON i.id = b.item_id JOIN users u ON u.id = b.booker_id ";
+    private static final String HOT = "bookings";
+    private static final String ARCHIVE = "bookings_archive";
+    private static final String PAGE_FILTER = "AND b.start_date > :startAfter AND b.start_date <= :startUntil " +
+            "AND b.end_date >= :endFrom AND b.end_date < :endBefore " +
+            "AND b.status IN (:statuses) " +
+            "AND (b.start_date < :cursorStart " +
+            "OR (b.start_date = :cursorStart AND b.id < :cursorId)) " +
+            "ORDER BY b.start_date DESC, b.id DESC LIMIT :limit";
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<BookingResponseDto> findBookerPage(Long userId, BookingPageQuery page, int limit) {
+        return findPage(SELECT.formatted(HOT) + "WHERE b.booker_id = :userId " + PAGE_FILTER, userId, page, limit);
+    }
+
+    public Flux<BookingResponseDto> findOwnerPage(Long userId, BookingPageQuery page, int limit) {
+        return findPage(SELECT.formatted(HOT) + "WHERE i.owner_id = :userId " + PAGE_FILTER, userId, page, limit);
+    }
+
+    public Flux<BookingResponseDto> findArchivedBookerPage(Long userId, BookingPageQuery page, int limit) {
+        return findPage(SELECT.formatted(ARCHIVE) + "WHERE b.booker_id = :userId " + PAGE_FILTER, userId, page,
+                limit);
+    }
+
+    public Flux<BookingResponseDto> findArchivedOwnerPage(Long userId, BookingPageQuery page, int limit) {
+        return findPage(SELECT.formatted(ARCHIVE) + "WHERE i.owner_id = :userId " + PAGE_FILTER, userId, page,
+                limit);
+    }
+
+    public Mono<Boolean> existsUser(Long userId) {
+        return databaseClient.sql("SELECT 1 FROM users WHERE id = :userId")
+                .bind("userId", userId)
+                .fetch()
+                .first()
+                .hasElement();
+    }
+
+    public Mono<Boolean> existsItemByOwner(Long userId) {
+        return databaseClient.sql("SELECT 1 FROM items WHERE owner_id = :userId LIMIT 1")
+                .bind("userId", userId)
+                .fetch()
+                .first()
+                .hasElement();
+    }
+
+    private Flux<BookingResponseDto> findPage(String sql, Long userId, BookingPageQuery page, int limit) {
+        return databaseClient.sql(sql)
+                .bind("userId", userId)
+                .bind("startAfter", page.getStartAfter())
+                .bind("startUntil", page.getStartUntil())
+                .bind("endFrom", page.getEndFrom())
+                .bind("endBefore", page.getEndBefore())
+                .bind("statuses", page.getStatuses().stream().map(BookingStatus::name).toList())
+                .bind("cursorStart", page.getCursorStart())
+                .bind("cursorId", page.getCursorId())
+                .bind("limit", limit)
+                .map((row, metadata) -> toResponseDto(row))
+                .all();
+    }
+
+    private static BookingResponseDto toResponseDto(Row row) {
+        return BookingResponseDto.builder()
+                .id(row.get("id", Long.class))
+                .start(row.get("start_date", LocalDateTime.class))
+                .end(row.get("end_date", LocalDateTime.class))
+                .status(BookingStatus.valueOf(row.get("status", String.class)))
+                .item(ItemDto.builder()
+                        .id(row.get("item_id", Long.class))
+                        .name(row.get("item_name", String.class))
+                        .description(row.get("item_description", String.class))
+                        .available(row.get("item_available", Boolean.class))
+                        .build())
+                .booker(UserDto.builder()
+                        .id(row.get("booker_id", Long.class))
+                        .name(row.get("booker_name", String.class))
+                        .email(row.get("booker_email", String.class))
+                        .build())
+                .build();
+    }
+}
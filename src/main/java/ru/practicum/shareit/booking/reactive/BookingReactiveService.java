@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingPageQuery;
+import ru.practicum.shareit.booking.archive.BookingArchive;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.error.exception.OwnerException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Non-blocking counterpart of the booking list reads in {@code BookingServiceImpl},
+ * with the same checks, errors and page shape.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookingReactiveService {
+    private final BookingReactiveRepository bookingReactiveRepository;
+    private final BookingArchive bookingArchive;
+
+    public Mono<BookingPageDto> getBookings(Long userId, BookingState state, String cursor, Integer size) {
+        LocalDateTime now = LocalDateTime.now();
+        BookingPageQuery page = BookingPageQuery.of(state, BookingCursor.decode(cursor), now);
+        return requireUser(userId)
+                .then(findPage(page, fetchLimit(size), now,
+                        limit -> bookingReactiveRepository.findBookerPage(userId, page, limit),
+                        limit -> bookingReactiveRepository.findArchivedBookerPage(userId, page, limit)))
+                .map(bookings -> toPage(bookings, size));
+    }
+
+    public Mono<BookingPageDto> getBookingsByOwnerItems(Long userId, BookingState state, String cursor, Integer size) {
+        LocalDateTime now = LocalDateTime.now();
+        BookingPageQuery page = BookingPageQuery.of(state, BookingCursor.decode(cursor), now);
+        return requireUser(userId)
+                .then(bookingReactiveRepository.existsItemByOwner(userId))
+                .flatMap(owner -> owner ? Mono.empty()
+                        : Mono.error(new OwnerException("You are not owner of any item.")))
+                .then(findPage(page, fetchLimit(size), now,
+                        limit -> bookingReactiveRepository.findOwnerPage(userId, page, limit),
+                        limit -> bookingReactiveRepository.findArchivedOwnerPage(userId, page, limit)))
+                .map(bookings -> toPage(bookings, size));
+    }
+
+    // the hot table first, then the archive if the page can reach into it, as in BookingServiceImpl
+    private Mono<List<BookingResponseDto>> findPage(BookingPageQuery page, int limit, LocalDateTime now,
+                                                    Function<Integer, Flux<BookingResponseDto>> hot,
+                                                    Function<Integer, Flux<BookingResponseDto>> archived) {
+        return Mono.defer(() -> hot.apply(limit).collectList())
+                .flatMap(bookings -> bookingArchive.reaches(page, bookings, limit, now)
+                        ? archived.apply(limit).collectList()
+                        .map(archivedBookings -> BookingArchive.merge(bookings, archivedBookings, limit))
+                        : Mono.just(bookings));
+    }
+
+    private Mono<Void> requireUser(Long userId) {
+        return bookingReactiveRepository.existsUser(userId)
+                .flatMap(exists -> exists ? Mono.<Void>empty()
+                        : Mono.error(new NotFoundException("User with id - %d not found".formatted(userId))));
+    }
+
+    private static int fetchLimit(Integer size) {
+        return size == null ? Integer.MAX_VALUE : size + 1;
+    }
+
+    private static BookingPageDto toPage(List<BookingResponseDto> bookings, Integer size) {
+        boolean hasNext = size != null && bookings.size() > size;
+        List<BookingResponseDto> page = hasNext ? bookings.subList(0, size) : bookings;
+
+        return BookingPageDto.builder()
+                .bookings(page)
+                .nextCursor(hasNext ? BookingCursor.after(page.getLast()).encode() : null)
+                .build();
+    }
+}
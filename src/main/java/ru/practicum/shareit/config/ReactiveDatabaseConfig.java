@@ -0,0 +1,46 @@
+package ru.practicum.shareit.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC access for the /rx read endpoints. The pool is deliberately not a {@code ConnectionFactory} bean:
+ * Boot drops the JDBC DataSource when it finds one, and JPA with its transactions stays on JDBC.
+ */
+@Configuration
+public class ReactiveDatabaseConfig implements DisposableBean {
+    private final ConnectionPool pool;
+
+    public ReactiveDatabaseConfig(@Value("${shareit.rx.url}") String url,
+                                  @Value("${shareit.rx.username}") String username,
+                                  @Value("${shareit.rx.password}") String password,
+                                  @Value("${shareit.rx.pool.initial-size:4}") int initialSize,
+                                  @Value("${shareit.rx.pool.max-size:10}") int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("shareit-rx")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(pool);
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.practicum.shareit.datasource.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces Boot's data source when {@code shareit.datasource.replicas} lists replica URLs: read-only transactions
+ * go to the replicas through a {@link ReplicaRoutingDataSource}, everything else, Flyway included, to the
+ * {@code spring.datasource} primary. Every pool takes the {@code spring.datasource.hikari} settings, replicas
+ * with a shorter connection timeout.
+ * The pools stay out of the context, so the single {@code DataSource} bean is the routing one.
+ */
+@Configuration
+@ConditionalOnProperty("shareit.datasource.replicas")
+public class ReplicaDataSourceConfig implements DisposableBean {
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                                 @Value("${shareit.datasource.replicas}") List<String> replicaUrls,
+                                 @Value("${shareit.datasource.replica-selection:ROUND_ROBIN}")
+                                 ReplicaRoutingDataSource.Selection selection,
+                                 @Value("${shareit.datasource.replica-health-interval:5s}") Duration healthInterval,
+                                 @Value("${shareit.datasource.replica-max-lag:5s}") Duration maxLag,
+                                 @Value("${shareit.datasource.replica-connection-timeout:1s}")
+                                 Duration replicaConnectionTimeout,
+                                 @Value("${shareit.datasource.read-your-writes:5s}") Duration readYourWrites) {
+        HikariDataSource primary = pool(environment, meterRegistry, "shareit-primary",
+                properties.initializeDataSourceBuilder().type(HikariDataSource.class).build());
+        List<HikariDataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = pool(environment, meterRegistry, "shareit-replica-" + (i + 1),
+                    DataSourceBuilder.create()
+                            .type(HikariDataSource.class)
+                            .driverClassName(properties.determineDriverClassName())
+                            .url(replicaUrls.get(i).trim())
+                            .username(properties.determineUsername())
+                            .password(properties.determinePassword())
+                            .build());
+            replica.setReadOnly(true);
+            // the primary can always take the read instead, so don't wait long for a replica
+            replica.setConnectionTimeout(replicaConnectionTimeout.toMillis());
+            replicas.add(replica);
+        }
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, selection, healthInterval, maxLag,
+                readYourWrites, meterRegistry);
+        routingDataSource.start();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Override
+    public void destroy() {
+        if (routingDataSource != null) {
+            routingDataSource.close();
+        }
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource pool(Environment environment, MeterRegistry meterRegistry, String name,
+                                  HikariDataSource pool) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        pools.add(pool);
+        return pool;
+    }
+}
@@ -0,0 +1,241 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the connections of read-only transactions to a read replica and everything else to the primary.
+ * The transaction manager takes its connection before the transaction is marked read-only, so this has to sit
+ * behind a {@link LazyConnectionDataSourceProxy}, which fetches the connection at the first statement.
+ * Every {@code health-interval} each replica is asked how far its replay lags behind; one that can't answer
+ * or lags more than {@code max-lag} takes no reads until a later check passes, and neither does one that
+ * fails to hand out a connection. Without a healthy replica reads go to the primary.
+ * After a user's read-write transaction commits, that user's reads stay on the primary for
+ * {@code read-your-writes}, so they see their change even on a replica still replaying it.
+ * The user is the one in the request's {@code X-Sharer-User-Id} header on this instance.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    public static final String PRIMARY = "primary";
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    // zero while replay has caught up with everything received, the primary may just have been idle
+    private static final String LAG_MILLIS = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() <= pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final long maxLagMillis;
+    private final Cache<Long, Boolean> recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Counter recentWriteReads;
+    private final Counter fallbackReads;
+    private final Duration healthInterval;
+    private final ScheduledExecutorService healthChecks;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, Selection selection,
+                                    Duration healthInterval, Duration maxLag, Duration readYourWrites,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(pool -> new Replica(pool, meterRegistry)).toList();
+        this.selection = selection;
+        this.maxLagMillis = maxLag.toMillis();
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(readYourWrites).build();
+        this.recentWriteReads = readCounter(meterRegistry, PRIMARY, "recent-write");
+        this.fallbackReads = readCounter(meterRegistry, PRIMARY, "no-healthy-replica");
+        this.healthInterval = healthInterval;
+        this.healthChecks = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("replica-health")
+                .daemon(true)
+                .factory());
+    }
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    // replicas take reads once their first check passes
+    public void start() {
+        healthChecks.scheduleWithFixedDelay(this::checkReplicas, 0, healthInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        healthChecks.shutdownNow();
+    }
+
+    private Connection connect(ConnectionSource source) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriter();
+            return source.connect(primary);
+        }
+        Long user = currentUser();
+        if (user != null && recentWriters.getIfPresent(user) != null) {
+            recentWriteReads.increment();
+            return source.connect(primary);
+        }
+        for (Replica replica : candidates()) {
+            try {
+                Connection connection = source.connect(replica.pool);
+                replica.reads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+        fallbackReads.increment();
+        return source.connect(primary);
+    }
+
+    // read-write transactions that haven't written anything count too, checking would cost more than it saves
+    private void rememberWriter() {
+        Long user = currentUser();
+        if (user != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionHooks.afterCommit(() -> recentWriters.put(user, Boolean.TRUE));
+        }
+    }
+
+    private List<Replica> candidates() {
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        int first = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((first + i) % replicas.size());
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+        }
+        if (selection == Selection.LEAST_CONNECTIONS && healthy.size() > 1) {
+            // the least busy first, the rest stay in turn order as fallbacks; ties also take turns
+            Replica least = healthy.stream().min(Comparator.comparingInt(Replica::activeConnections)).orElseThrow();
+            healthy.remove(least);
+            healthy.addFirst(least);
+        }
+        return healthy;
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet lag = statement.executeQuery(LAG_MILLIS)) {
+                lag.next();
+                replica.lagMillis = lag.getLong(1);
+                if (replica.lagMillis > maxLagMillis) {
+                    replica.markDown("replay lags %d ms behind".formatted(replica.lagMillis));
+                } else {
+                    replica.markUp();
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    private static Long currentUser() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        String user = attributes.getRequest().getHeader(USER_HEADER);
+        try {
+            return user == null ? null : Long.valueOf(user);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.reads")
+                .description("Connections handed out for read-only transactions")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        private final Counter reads;
+        private volatile boolean healthy;
+        private volatile boolean checked;
+        private volatile long lagMillis;
+
+        private Replica(HikariDataSource pool, MeterRegistry meterRegistry) {
+            this.pool = pool;
+            this.reads = readCounter(meterRegistry, pool.getPoolName(), "replica");
+            Gauge.builder("datasource.replica.healthy", this, replica -> replica.healthy ? 1 : 0)
+                    .description("Whether the replica takes reads")
+                    .tag("replica", pool.getPoolName())
+                    .register(meterRegistry);
+            TimeGauge.builder("datasource.replica.lag", this, TimeUnit.MILLISECONDS, replica -> replica.lagMillis)
+                    .description("Replay lag of the replica at its last health check")
+                    .tag("replica", pool.getPoolName())
+                    .register(meterRegistry);
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            return mxBean == null ? 0 : mxBean.getActiveConnections();
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                log.info("Replica {} takes reads, replay lag {} ms", pool.getPoolName(), lagMillis);
+            }
+            healthy = true;
+            checked = true;
+        }
+
+        private void markDown(String reason) {
+            if (healthy || !checked) {
+                log.warn("Replica {} takes no reads until its next health check passes: {}", pool.getPoolName(),
+                        reason);
+            }
+            healthy = false;
+            checked = true;
+        }
+    }
+}
@@ -4,7 +4,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.shareit.error.exception.BookingStatusConflictException;
+import ru.practicum.shareit.error.exception.DateValidationException;
 import ru.practicum.shareit.error.exception.DublicatingEmailException;
+import ru.practicum.shareit.error.exception.InvalidCursorException;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.error.exception.OwnerException;
 
@@ -28,4 +31,22 @@ public class ErrorHandler {
     public ErrorResponse handleDublicatingEmailException(final RuntimeException e) {
         return new ErrorResponse(e.getMessage());
     }
+
+    @ExceptionHandler(BookingStatusConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleBookingStatusConflictException(final RuntimeException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(DateValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleDateValidationException(final RuntimeException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidCursorException(final RuntimeException e) {
+        return new ErrorResponse(e.getMessage());
+    }
 }
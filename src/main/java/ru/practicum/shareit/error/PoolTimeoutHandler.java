@@ -0,0 +1,24 @@
+package ru.practicum.shareit.error;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * In the {@code virtual} profile the Hikari pool, not Tomcat, bounds concurrent requests, and its short
+ * connection timeout sheds load: a request that got no connection in time is answered with 503.
+ * Other modes keep answering it with 500.
+ */
+@Profile("virtual")
+@RestControllerAdvice
+public class PoolTimeoutHandler {
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleCannotCreateTransactionException(final RuntimeException e) {
+        return new ErrorResponse("Database is busy, try again later");
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.error.exception;
+
+public class BookingStatusConflictException extends RuntimeException {
+    public BookingStatusConflictException(String s) {
+        super(s);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Items by id with their owner's id as immutable {@link OwnedItemView}s, read without managed entities, so a cached
+ * item holds no lazy associations and can be shared between requests. Unknown ids aren't cached.
+ * Writers evict after commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemCache {
+    public static final String CACHE = "items";
+
+    private final ItemRepository itemRepository;
+    private final CacheManager cacheManager;
+
+    @Cacheable(cacheNames = CACHE, key = "#p0", unless = "#result == null")
+    public Optional<OwnedItemView> find(Long id) {
+        return itemRepository.findOwnedViewById(id);
+    }
+
+    public void evict(Long id) {
+        TransactionHooks.afterCommit(() -> Objects.requireNonNull(cacheManager.getCache(CACHE)).evict(id));
+    }
+}
@@ -1,6 +1,9 @@
 package ru.practicum.shareit.item;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.error.ValidationMarker;
@@ -9,16 +12,19 @@ import ru.practicum.shareit.item.comment.CommentRespondDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
 public class ItemController {
+    private static final long MAX_AVAILABLE_SIZE = 100;
+
     public final ItemService itemService;
 
     @GetMapping
-    public List<ItemDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public List<ItemOwnerDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemService.getAll(userId);
     }
 
@@ -28,8 +34,17 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchAllByText(@RequestParam("text") String text) {
-        return itemService.searchByText(text);
+    public List<ItemDto> searchAllByText(@RequestParam("text") String text,
+                                         @RequestParam(value = "size", required = false) @Positive Integer size) {
+        return itemService.searchByText(text, size);
+    }
+
+    @GetMapping("/available")
+    public List<ItemDto> findAvailable(@RequestParam("start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                       @RequestParam("end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                       @RequestParam(value = "text", required = false) String text,
+                                       @RequestParam(value = "size", defaultValue = "20") @Positive @Max(MAX_AVAILABLE_SIZE) Integer size) {
+        return itemService.findAvailable(text, start, end, size);
     }
 
     @PatchMapping("/{id}")
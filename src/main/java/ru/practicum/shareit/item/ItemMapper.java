@@ -16,6 +16,13 @@ public class ItemMapper {
                 .available(item.getAvailable()).build();
     }
 
+    public static ItemDto toItemDto(ItemView item) {
+        return ItemDto.builder().id(item.id())
+                .name(item.name())
+                .description(item.description())
+                .available(item.available()).build();
+    }
+
     public static ItemOwnerDto toItemOwnerDto(Item item, LocalDateTime lastBooking,LocalDateTime nextBooking) {
         return ItemOwnerDto.builder()
                 .id(item.getId())
@@ -27,6 +34,17 @@ public class ItemMapper {
                 .build();
     }
 
+    public static ItemOwnerDto toItemOwnerDto(ItemView item, LocalDateTime lastBooking, LocalDateTime nextBooking) {
+        return ItemOwnerDto.builder()
+                .id(item.id())
+                .name(item.name())
+                .description(item.description())
+                .available(item.available())
+                .lastBooking(lastBooking)
+                .nextBooking(nextBooking)
+                .build();
+    }
+
     public static Item toItem(ItemDto dto) {
         return Item.builder().id(dto.getId()).name(dto.getName())
                 .description(dto.getDescription())
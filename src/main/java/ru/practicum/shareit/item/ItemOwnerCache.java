@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemOwnerDto;
+import ru.practicum.shareit.sql.SqlCapture;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Assembled {@link ItemOwnerDto} per item. An entry lives until the cached next booking starts,
+ * since that moment shifts the last/next dates, and at most {@code max-ttl}.
+ * Writers evict after commit. A load still in flight is dropped together with its future,
+ * so a view read before the commit can't outlive it.
+ * Loads run on the calling thread outside of any map lock, which keeps virtual threads unpinned
+ * while they wait for the database.
+ */
+@Component
+public class ItemOwnerCache {
+    private final AsyncCache<Long, Loaded> cache;
+    // every hit adds the statements its entry's load ran, which varies with the archive lookup
+    private final LongAdder savedQueries = new LongAdder();
+
+    public ItemOwnerCache(MeterRegistry meterRegistry,
+                          @Value("${shareit.items.owner-cache.maximum-size:10000}") long maximumSize,
+                          @Value("${shareit.items.owner-cache.max-ttl:10m}") Duration maxTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilNextBooking(maxTtl))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "itemOwners");
+        FunctionCounter.builder("items.owner.cache.saved.queries", savedQueries, LongAdder::sum)
+                .description("Item, booking and comment queries skipped by serving cached item views")
+                .register(meterRegistry);
+    }
+
+    public ItemOwnerDto get(Long itemId, Function<Long, ItemOwnerDto> loader) {
+        CompletableFuture<Loaded> created = new CompletableFuture<>();
+        CompletableFuture<Loaded> cached = cache.get(itemId, (id, executor) -> created);
+        if (cached == created) {
+            try (SqlCapture capture = SqlCapture.start("item owner view")) {
+                ItemOwnerDto loaded = loader.apply(itemId);
+                created.complete(new Loaded(loaded, capture.report().statements()));
+                return loaded;
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            Loaded loaded = cached.join();
+            savedQueries.add(loaded.queries());
+            return loaded.item();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    public void evict(Long itemId) {
+        TransactionHooks.afterCommit(() -> cache.synchronous().invalidate(itemId));
+    }
+
+    public void evictAll(Collection<Long> itemIds) {
+        TransactionHooks.afterCommit(() -> cache.synchronous().invalidateAll(itemIds));
+    }
+
+    private record Loaded(ItemOwnerDto item, int queries) {
+    }
+
+    private record UntilNextBooking(Duration maxTtl) implements Expiry<Long, Loaded> {
+        @Override
+        public long expireAfterCreate(Long itemId, Loaded loaded, long currentTime) {
+            LocalDateTime nextBooking = loaded.item().getNextBooking();
+            if (nextBooking == null) {
+                return maxTtl.toNanos();
+            }
+            Duration untilNext = Duration.between(LocalDateTime.now(), nextBooking);
+            return untilNext.compareTo(maxTtl) < 0 ? Math.max(untilNext.toNanos(), 0) : maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long itemId, Loaded loaded, long currentTime, long currentDuration) {
+            return expireAfterCreate(itemId, loaded, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long itemId, Loaded loaded, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,20 +1,48 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    // the columns of an ItemDto, read without managed entities
+    String VIEW = "SELECT new ru.practicum.shareit.item.ItemView(i.id, i.name, i.description, i.available) ";
 
-    List<Item> findByOwnerId(Long ownerId);
+    @Query("SELECT new ru.practicum.shareit.item.OwnedItemView(i.id, i.name, i.description, i.available, i.owner.id) " +
+            "FROM Item i WHERE i.id = ?1")
+    Optional<OwnedItemView> findOwnedViewById(Long id);
 
-    @Query(" select i from Item i " +
+    @Query(VIEW + "FROM Item i WHERE i.owner.id = ?1")
+    List<ItemView> findByOwnerId(Long ownerId);
+
+    @Query(VIEW + "FROM Item i WHERE i.id = ?1")
+    Optional<ItemView> findViewById(Long id);
+
+    @Query(VIEW + "FROM Item i WHERE i.id IN ?1 AND i.available = true ORDER BY i.id")
+    List<ItemView> findAvailableByIdIn(Collection<Long> ids);
+
+    boolean existsByOwnerId(Long ownerId);
+
+    // serializes bookings of the items across instances until the transaction ends; NO KEY UPDATE,
+    // so inserts that only reference the items, like comments, don't wait
+    @Query(value = "SELECT id FROM items WHERE id IN (?1) ORDER BY id FOR NO KEY UPDATE", nativeQuery = true)
+    List<Long> lockAllById(Collection<Long> ids);
+
+    @Query(VIEW + "from Item i " +
             "where i.available = true " +
             "  and (upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "    or upper(i.description) like upper(concat('%', ?1, '%'))) ")
-    List<Item> search(String text);
+            "    or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            "order by i.id")
+    List<ItemView> search(String text, Limit limit);
+
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description FROM Item i " +
+            "WHERE i.available = true AND i.id > ?1 ORDER BY i.id")
+    List<ItemText> findAvailableTextsAfter(Long id, Limit limit);
 
 }
@@ -5,15 +5,18 @@ import ru.practicum.shareit.item.comment.CommentRespondDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 
 public interface ItemService {
-    List<ItemDto> getAll(Long userId);
+    List<ItemOwnerDto> getAll(Long userId);
 
     ItemDto editOne(Long id, ItemDto item, Long userId);
 
-    List<ItemDto> searchByText(String text);
+    List<ItemDto> searchByText(String text, Integer size);
+
+    List<ItemDto> findAvailable(String text, LocalDateTime start, LocalDateTime end, int size);
 
     ItemDto create(ItemDto item, Long userId);
 
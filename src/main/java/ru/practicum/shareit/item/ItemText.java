@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item;
+
+public interface ItemText {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+}
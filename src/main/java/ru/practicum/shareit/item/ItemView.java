@@ -0,0 +1,4 @@
+package ru.practicum.shareit.item;
+
+public record ItemView(Long id, String name, String description, Boolean available) {
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.user.User;
+
+public record OwnedItemView(Long id, String name, String description, Boolean available, Long ownerId) {
+
+    // a detached copy for new rows to reference, never saved itself; the owner carries only its id
+    public Item toItem() {
+        return Item.builder().id(id).name(name).description(description).available(available)
+                .owner(User.builder().id(ownerId).build()).build();
+    }
+}
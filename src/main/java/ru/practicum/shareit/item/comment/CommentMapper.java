@@ -10,4 +10,13 @@ public class CommentMapper {
                 .text(comment.getText())
                 .build();
     }
+
+    public static CommentRespondDto toRespondDto(CommentView comment) {
+        return CommentRespondDto.builder()
+                .authorName(comment.authorName())
+                .created(comment.created())
+                .id(comment.id())
+                .text(comment.text())
+                .build();
+    }
 }
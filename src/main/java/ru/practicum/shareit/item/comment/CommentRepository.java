@@ -1,11 +1,15 @@
 package ru.practicum.shareit.item.comment;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByItemId(Long itemId);
+    @Query("SELECT new ru.practicum.shareit.item.comment.CommentView(c.id, c.item.id, c.text, a.name, c.created) " +
+            "FROM Comment c JOIN c.author a WHERE c.item.id IN ?1 ORDER BY c.created")
+    List<CommentView> findByItemIdIn(Collection<Long> itemIds);
 }
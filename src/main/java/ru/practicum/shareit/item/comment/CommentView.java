@@ -0,0 +1,6 @@
+package ru.practicum.shareit.item.comment;
+
+import java.time.LocalDateTime;
+
+public record CommentView(Long id, Long itemId, String text, String authorName, LocalDateTime created) {
+}
@@ -1,48 +1,76 @@
 package ru.practicum.shareit.item.impl;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingRepository;
-import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.CompletedBookingIndex;
+import ru.practicum.shareit.config.MetricsConfig;
 import ru.practicum.shareit.error.exception.BookingException;
+import ru.practicum.shareit.error.exception.DateValidationException;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.error.exception.OwnerException;
+import ru.practicum.shareit.item.ItemCache;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemOwnerCache;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.ItemView;
+import ru.practicum.shareit.item.OwnedItemView;
 import ru.practicum.shareit.item.comment.*;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.dto.ItemOwnerDto;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
-import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.user.UserCache;
+import ru.practicum.shareit.user.UserView;
+import ru.practicum.shareit.booking.ItemBookingDate;
+import ru.practicum.shareit.util.TransactionHooks;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 public class ItemServiceImpl implements ItemService {
+    // ids per IN list: padded to the next power of two, one list of every hit can pass the 65535 bind parameters of a
+    // statement, and past about 128 ids the planner reads all of items instead of probing its primary key
+    private static final int ID_CHUNK = 100;
+
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final ItemCache itemCache;
+    private final UserCache userCache;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemOwnerCache itemOwnerCache;
+    private final CompletedBookingIndex completedBookingIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
 
     @Override
-    public List<ItemDto> getAll(Long userId) {
+    public List<ItemOwnerDto> getAll(Long userId) {
         isUserExist(userId);
-        return itemRepository.findByOwnerId(userId).stream()
-                .map(ItemMapper::toItemDto).toList();
+        return toItemOwnerDtos(itemRepository.findByOwnerId(userId));
     }
 
     @Override
+    @Transactional
     public ItemDto editOne(Long id, ItemDto item, Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(
+        UserView user = userCache.find(userId).orElseThrow(
                 () -> new NotFoundException("User with id - %d not found"
                         .formatted(userId))
         );
@@ -52,9 +80,9 @@ public class ItemServiceImpl implements ItemService {
                         .formatted(id))
         );
 
-        if (!Objects.equals(oldItem.getOwner().getId(), user.getId())) {
+        if (!Objects.equals(oldItem.getOwner().getId(), user.id())) {
             throw new OwnerException("Item with id %d does not belong to user with id %d"
-                    .formatted(id, user.getId()));
+                    .formatted(id, user.id()));
         }
 
         if (item.getName() != null) {
@@ -67,46 +95,76 @@ public class ItemServiceImpl implements ItemService {
             oldItem.setAvailable(item.getAvailable());
         }
 
-        return ItemMapper.toItemDto(itemRepository.save(oldItem));
+        Item saved = itemRepository.save(oldItem);
+        TransactionHooks.afterCommit(() -> itemSearchIndex.update(saved.getId(), saved.getName(),
+                saved.getDescription(), saved.getAvailable()));
+        itemCache.evict(saved.getId());
+        itemOwnerCache.evict(saved.getId());
+        return ItemMapper.toItemDto(saved);
     }
 
     @Override
-    public List<ItemDto> searchByText(String text) {
+    public List<ItemDto> searchByText(String text, Integer size) {
         if (text == null || text.isBlank()) {
             return List.of();
         }
-        String lowerText = text.toLowerCase();
 
-        return itemRepository.search(lowerText).stream().map(ItemMapper::toItemDto).toList();
+        if (!itemSearchIndex.isReady()) {
+            Limit limit = size == null ? Limit.unlimited() : Limit.of(size);
+            return itemRepository.search(text.toLowerCase(), limit).stream().map(ItemMapper::toItemDto).toList();
+        }
+
+        List<Long> ids = itemSearchIndex.search(text, size == null ? Integer.MAX_VALUE : size);
+        return findAvailableByIds(ids);
+    }
+
+    @Override
+    public List<ItemDto> findAvailable(String text, LocalDateTime start, LocalDateTime end, int size) {
+        if (!start.isBefore(end)) {
+            throw new DateValidationException("Start date must be before end date.Start: " + start);
+        }
+
+        String query = text == null ? "" : text;
+        LongPredicate free = bookingIntervalIndex.availableDuring(start, end);
+        if (!itemSearchIndex.isReady()) {
+            return itemRepository.search(query.toLowerCase(), Limit.unlimited()).stream()
+                    .filter(item -> free.test(item.id()))
+                    .limit(size)
+                    .map(ItemMapper::toItemDto)
+                    .toList();
+        }
+
+        List<Long> ids = itemSearchIndex.search(query, size, free, true);
+        return findAvailableByIds(ids);
     }
 
     @Override
     @Transactional
     public ItemDto create(ItemDto item, Long userId) {
         Item newItem = ItemMapper.toItem(item);
-        newItem.setOwner(userRepository.findById(userId)
+        newItem.setOwner(userCache.find(userId).map(UserView::toUser)
                 .orElseThrow(() -> new NotFoundException("User with id - %d not found"
                         .formatted(userId))
                 )
         );
-        return ItemMapper.toItemDto(itemRepository.save(newItem));
+        Item saved = itemRepository.save(newItem);
+        TransactionHooks.afterCommit(() -> itemSearchIndex.update(saved.getId(), saved.getName(),
+                saved.getDescription(), saved.getAvailable()));
+        return ItemMapper.toItemDto(saved);
     }
 
     @Override
+    @Transactional
     public CommentRespondDto createComment(CommentRequestDto commentRequestDto, Long userId, Long itemId) {
-        User author = userRepository.findById(userId).orElseThrow(
+        User author = userCache.find(userId).map(UserView::toUser).orElseThrow(
                 () -> new NotFoundException("User with id - %d not found".formatted(userId))
         );
 
-        Item item = itemRepository.findById(itemId).orElseThrow(
+        Item item = itemCache.find(itemId).map(OwnedItemView::toItem).orElseThrow(
                 () -> new NotFoundException("Item with id - %d not found".formatted(itemId))
         );
 
-        boolean isBooked = bookingRepository.findPastBookings(author.getId(), LocalDateTime.now()).stream()
-                .anyMatch(booking ->  Objects.equals(booking.getItem().getId(), itemId)
-                            && booking.getStatus() == BookingStatus.APPROVED);
-
-        if (!isBooked) {
+        if (!completedBookingIndex.hasCompleted(author.getId(), itemId, LocalDateTime.now())) {
             throw new BookingException("User didn't book this item or booking is not canceled!");
         }
 
@@ -116,36 +174,67 @@ public class ItemServiceImpl implements ItemService {
                 .item(item)
                 .build();
 
-        return CommentMapper.toRespondDto(commentRepository.save(comment));
+        CommentRespondDto created = CommentMapper.toRespondDto(commentRepository.save(comment));
+        itemOwnerCache.evict(itemId);
+        return created;
     }
 
     @Override
     public ItemOwnerDto getByIdAndOwnerId(Long id, Long userId) {
+        return itemOwnerCache.get(id, itemId -> {
+            ItemView item = itemRepository.findViewById(itemId).orElseThrow(
+                    () -> new NotFoundException("Item with id - %d not found"
+                            .formatted(itemId))
+            );
+
+            return toItemOwnerDtos(List.of(item)).getFirst();
+        });
+    }
 
-        Item item = itemRepository.findById(id).orElseThrow(
-                () -> new NotFoundException("Item with id - %d not found"
-                        .formatted(id))
-        );
+    private List<ItemOwnerDto> toItemOwnerDtos(List<ItemView> items) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
 
+        List<Long> itemIds = items.stream().map(ItemView::id).toList();
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime lastBookingDate = bookingRepository.findLastBooking(item.getId(), now)
-                .map(Booking::getEnd)
-                .orElse(null);
-
-        LocalDateTime nextBookingDate = bookingRepository.findNextBooking(item.getId(), now)
-                .map(Booking::getStart)
-                .orElse(null);
-
-        ItemOwnerDto itemOwnerDto = ItemMapper.toItemOwnerDto(item, lastBookingDate, nextBookingDate);
 
-        itemOwnerDto.setComments(commentRepository.findByItemId(item.getId())
-                .stream().map(CommentMapper::toRespondDto).toList());
+        Map<Long, LocalDateTime> lastBookingDates = bookingRepository.findLastBookingDates(itemIds, now).stream()
+                .collect(Collectors.toMap(ItemBookingDate::getItemId, ItemBookingDate::getDate));
+        // an archived booking ended before any hot one, so it only counts for items without a hot one
+        List<Long> withoutHotLast = itemIds.stream().filter(itemId -> !lastBookingDates.containsKey(itemId)).toList();
+        if (!withoutHotLast.isEmpty()) {
+            archivedBookingRepository.findLastBookingDates(withoutHotLast, now)
+                    .forEach(date -> lastBookingDates.put(date.getItemId(), date.getDate()));
+        }
+        Map<Long, LocalDateTime> nextBookingDates = bookingRepository.findNextBookingDates(itemIds, now).stream()
+                .collect(Collectors.toMap(ItemBookingDate::getItemId, ItemBookingDate::getDate));
+        Map<Long, List<CommentRespondDto>> comments = commentRepository.findByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(CommentView::itemId,
+                        Collectors.mapping(CommentMapper::toRespondDto, Collectors.toList())));
+
+        return items.stream()
+                .map(item -> {
+                    ItemOwnerDto itemOwnerDto = ItemMapper.toItemOwnerDto(item,
+                            lastBookingDates.get(item.id()), nextBookingDates.get(item.id()));
+                    itemOwnerDto.setComments(comments.getOrDefault(item.id(), List.of()));
+                    return itemOwnerDto;
+                })
+                .toList();
+    }
 
-        return itemOwnerDto;
+    // the index returns ids in id order, so reading them chunk by chunk keeps that order
+    private List<ItemDto> findAvailableByIds(List<Long> ids) {
+        List<ItemDto> items = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += ID_CHUNK) {
+            itemRepository.findAvailableByIdIn(ids.subList(from, Math.min(from + ID_CHUNK, ids.size())))
+                    .forEach(item -> items.add(ItemMapper.toItemDto(item)));
+        }
+        return items;
     }
 
     private void isUserExist(Long userId) {
-        userRepository.findById(userId)
+        userCache.find(userId)
                 .orElseThrow(() -> new NotFoundException("User with id - %d not found"
                         .formatted(userId))
                 );
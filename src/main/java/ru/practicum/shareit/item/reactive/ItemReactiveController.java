@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.reactive;
+
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.item.dto.ItemDto;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/rx/items")
+@RequiredArgsConstructor
+public class ItemReactiveController {
+    private final ItemReactiveService itemReactiveService;
+
+    @GetMapping("/search")
+    public Flux<ItemDto> searchAllByText(@RequestParam("text") String text,
+                                         @RequestParam(value = "size", required = false) @Positive Integer size) {
+        return itemReactiveService.searchByText(text, size);
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import reactor.core.publisher.Flux;
+
+/**
+ * Item search over R2DBC with the same matching and order as {@code ItemRepository.search}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemReactiveRepository {
+    private static final String SEARCH = "SELECT id, name, description, is_available FROM items " +
+            "WHERE is_available " +
+            "AND (upper(name) LIKE upper('%' || :text || '%') OR upper(description) LIKE upper('%' || :text || '%')) " +
+            "ORDER BY id LIMIT :limit";
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<ItemDto> search(String text, long limit) {
+        return databaseClient.sql(SEARCH)
+                .bind("text", text)
+                .bind("limit", limit)
+                .map((row, metadata) -> ItemDto.builder()
+                        .id(row.get("id", Long.class))
+                        .name(row.get("name", String.class))
+                        .description(row.get("description", String.class))
+                        .available(row.get("is_available", Boolean.class))
+                        .build())
+                .all();
+    }
+}
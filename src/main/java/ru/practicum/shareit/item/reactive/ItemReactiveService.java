@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.item.dto.ItemDto;
+import reactor.core.publisher.Flux;
+
+@Service
+@RequiredArgsConstructor
+public class ItemReactiveService {
+    private final ItemReactiveRepository itemReactiveRepository;
+
+    public Flux<ItemDto> searchByText(String text, Integer size) {
+        if (text == null || text.isBlank()) {
+            return Flux.empty();
+        }
+        return itemReactiveRepository.search(text, size == null ? Long.MAX_VALUE : size);
+    }
+}
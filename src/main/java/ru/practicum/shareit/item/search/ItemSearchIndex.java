@@ -0,0 +1,227 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemText;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Trigram inverted index over names and descriptions of available items.
+ * Gives the same case-insensitive substring matches as {@code ItemRepository.search}
+ * without scanning the items table. Queries shorter than a trigram scan the in-memory documents.
+ * Posting lists hold item ids in ascending order, so a limited search returns the matches with the lowest ids,
+ * the order of the database query, and still stops at the limit.
+ * Searches can take a filter on the item id, applied before the limit; with {@code parallel} large
+ * candidate sets are split into chunks checked on the common fork-join pool.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+    private static final int LOAD_CHUNK = 10_000;
+    private static final int PARALLEL_CHUNK = 16_384;
+    private static final LongPredicate ANY_ITEM = itemId -> true;
+
+    private final ItemRepository itemRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final PostingList allItems = new PostingList();
+    private final Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        long lastId = 0;
+        int loaded = 0;
+        List<ItemText> chunk;
+        do {
+            chunk = itemRepository.findAvailableTextsAfter(lastId, Limit.of(LOAD_CHUNK));
+            lock.writeLock().lock();
+            try {
+                for (ItemText item : chunk) {
+                    if (!changedWhileLoading.contains(item.getId())) {
+                        put(item.getId(), item.getName(), item.getDescription());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!chunk.isEmpty()) {
+                lastId = chunk.getLast().getId();
+                loaded += chunk.size();
+            }
+        } while (chunk.size() == LOAD_CHUNK);
+        ready = true;
+        changedWhileLoading.clear();
+        log.info("Item search index loaded {} items in {} ms", loaded, System.currentTimeMillis() - started);
+    }
+
+    public List<Long> search(String text, int limit) {
+        return search(text, limit, ANY_ITEM, false);
+    }
+
+    public List<Long> search(String text, int limit, LongPredicate filter, boolean parallel) {
+        String query = normalize(text);
+        lock.readLock().lock();
+        try {
+            return query.length() < GRAM ? scan(query, limit, filter, parallel) : lookup(query, limit, filter, parallel);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void update(Long itemId, String name, String description, boolean available) {
+        if (!ready) {
+            changedWhileLoading.add(itemId);
+        }
+        lock.writeLock().lock();
+        try {
+            remove(itemId);
+            if (available) {
+                put(itemId, name, description);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Long> lookup(String query, int limit, LongPredicate filter, boolean parallel) {
+        long[] grams = grams(query);
+        PostingList[] lists = new PostingList[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return List.of();
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(PostingList::size));
+
+        PostingList smallest = lists[0];
+        return collect(smallest, itemId -> containsAll(lists, itemId) && documents.get(itemId).matches(query),
+                limit, filter, parallel);
+    }
+
+    private List<Long> scan(String query, int limit, LongPredicate filter, boolean parallel) {
+        return collect(allItems, itemId -> documents.get(itemId).matches(query), limit, filter, parallel);
+    }
+
+    // checks candidates in id order until limit of them match; in parallel every chunk stops at the limit
+    // and the chunks are concatenated in order, so the result is the same
+    private List<Long> collect(PostingList candidates, LongPredicate matches, int limit, LongPredicate filter,
+                               boolean parallel) {
+        int size = candidates.size();
+        if (!parallel || size < 2 * PARALLEL_CHUNK) {
+            return collect(candidates, 0, size, matches, limit, filter);
+        }
+        // the first chunk alone usually fills the page, only sparse matches are worth the fork-join pool
+        List<Long> first = collect(candidates, 0, PARALLEL_CHUNK, matches, limit, filter);
+        if (first.size() == limit) {
+            return first;
+        }
+        int chunks = (size + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+        List<List<Long>> rest = IntStream.range(1, chunks).parallel()
+                .mapToObj(chunk -> collect(candidates, chunk * PARALLEL_CHUNK,
+                        Math.min(size, (chunk + 1) * PARALLEL_CHUNK), matches, limit, filter))
+                .toList();
+        return Stream.concat(Stream.of(first), rest.stream())
+                .flatMap(List::stream)
+                .limit(limit)
+                .toList();
+    }
+
+    private static List<Long> collect(PostingList candidates, int from, int to, LongPredicate matches, int limit,
+                                      LongPredicate filter) {
+        List<Long> found = new ArrayList<>();
+        for (int i = from; i < to && found.size() < limit; i++) {
+            long itemId = candidates.get(i);
+            if (matches.test(itemId) && filter.test(itemId)) {
+                found.add(itemId);
+            }
+        }
+        return found;
+    }
+
+    private void put(Long itemId, String name, String description) {
+        Document document = new Document(normalize(name), normalize(description));
+        documents.put(itemId, document);
+        allItems.add(itemId);
+        for (long gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new PostingList()).add(itemId);
+        }
+    }
+
+    private void remove(Long itemId) {
+        Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        allItems.remove(itemId);
+        for (long gram : document.grams()) {
+            PostingList list = postings.get(gram);
+            list.remove(itemId);
+            if (list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static boolean containsAll(PostingList[] lists, long itemId) {
+        for (int i = 1; i < lists.length; i++) {
+            if (!lists[i].contains(itemId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static long[] grams(String... texts) {
+        return Arrays.stream(texts)
+                .flatMapToLong(text -> IntStream.rangeClosed(0, text.length() - GRAM)
+                        .mapToLong(i -> gram(text, i)))
+                .distinct()
+                .toArray();
+    }
+
+    private static long gram(String text, int from) {
+        return ((long) text.charAt(from) << 32) | ((long) text.charAt(from + 1) << 16) | text.charAt(from + 2);
+    }
+
+    private record Document(String name, String description) {
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        long[] grams() {
+            return ItemSearchIndex.grams(name, description);
+        }
+    }
+}
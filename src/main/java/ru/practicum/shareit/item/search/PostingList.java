@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of the ids of items that contain one n-gram.
+ */
+final class PostingList {
+    private long[] itemIds = new long[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long get(int position) {
+        return itemIds[position];
+    }
+
+    boolean contains(long itemId) {
+        return Arrays.binarySearch(itemIds, 0, size, itemId) >= 0;
+    }
+
+    void add(long itemId) {
+        int position = Arrays.binarySearch(itemIds, 0, size, itemId);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        if (size == itemIds.length) {
+            itemIds = Arrays.copyOf(itemIds, size + (size >> 1) + 1);
+        }
+        System.arraycopy(itemIds, position, itemIds, position + 1, size - position);
+        itemIds[position] = itemId;
+        size++;
+    }
+
+    void remove(long itemId) {
+        int position = Arrays.binarySearch(itemIds, 0, size, itemId);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(itemIds, position + 1, itemIds, position, size - position - 1);
+        size--;
+    }
+}
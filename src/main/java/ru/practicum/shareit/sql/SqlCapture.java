@@ -0,0 +1,68 @@
+package ru.practicum.shareit.sql;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statements executed by the current thread between {@link #start(String)} and {@link #close()}.
+ * Captures nest, statements of an inner capture count for the outer ones too.
+ * Every HTTP request runs in one, and tests can open their own to pin the queries of a call:
+ * <pre>
+ * try (SqlCapture capture = SqlCapture.start("owner items")) {
+ *     itemService.getAll(ownerId);
+ *     capture.report().assertStatementsAtMost(4).assertNoRepeatedStatements(2);
+ * }
+ * </pre>
+ */
+public final class SqlCapture implements AutoCloseable {
+    private static final ThreadLocal<SqlCapture> CURRENT = new ThreadLocal<>();
+
+    private final SqlCapture parent;
+    private final String label;
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+    private int statements;
+    private long elapsedMillis;
+
+    private SqlCapture(SqlCapture parent, String label) {
+        this.parent = parent;
+        this.label = label;
+    }
+
+    public static SqlCapture start(String label) {
+        SqlCapture capture = new SqlCapture(CURRENT.get(), label);
+        CURRENT.set(capture);
+        return capture;
+    }
+
+    public SqlReport report() {
+        return new SqlReport(label, statements, elapsedMillis, Collections.unmodifiableMap(new LinkedHashMap<>(shapes)));
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("SQL captures must be closed in reverse order of opening");
+        }
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    static String currentLabel() {
+        SqlCapture capture = CURRENT.get();
+        return capture == null ? null : capture.label;
+    }
+
+    static void record(Iterable<String> shapes, long elapsedMillis) {
+        for (SqlCapture capture = CURRENT.get(); capture != null; capture = capture.parent) {
+            capture.statements++;
+            capture.elapsedMillis += elapsedMillis;
+            for (String shape : shapes) {
+                capture.shapes.merge(shape, 1, Integer::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.sql;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "sql")
+@RequiredArgsConstructor
+public class SqlEndpoint {
+    private final SqlInspector sqlInspector;
+
+    @ReadOperation
+    public SqlInspector.Summary summary() {
+        return sqlInspector.summary();
+    }
+}
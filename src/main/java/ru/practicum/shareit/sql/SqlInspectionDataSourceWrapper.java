@@ -0,0 +1,34 @@
+package ru.practicum.shareit.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes the application data source through datasource-proxy so every statement reaches the {@link SqlInspector}.
+ */
+@Component
+public class SqlInspectionDataSourceWrapper implements BeanPostProcessor {
+    private final ObjectProvider<SqlInspector> sqlInspector;
+
+    public SqlInspectionDataSourceWrapper(ObjectProvider<SqlInspector> sqlInspector) {
+        this.sqlInspector = sqlInspector;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        SqlInspector inspector = sqlInspector.getObject();
+        inspector.setExplainDataSource(dataSource);
+        return ProxyDataSourceBuilder.create(dataSource)
+                .name(beanName)
+                .listener(inspector)
+                .build();
+    }
+}
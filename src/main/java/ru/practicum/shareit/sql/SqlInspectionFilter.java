@@ -0,0 +1,33 @@
+package ru.practicum.shareit.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link SqlCapture} around every request and hands its report to the {@link SqlInspector}.
+ * Bodies streamed on another thread after the handler returns are not counted.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlInspectionFilter extends OncePerRequestFilter {
+    private final SqlInspector sqlInspector;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlCapture capture = SqlCapture.start(request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            capture.close();
+            sqlInspector.onRequest(capture.report());
+        }
+    }
+}
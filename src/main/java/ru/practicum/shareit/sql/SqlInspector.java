@@ -0,0 +1,275 @@
+package ru.practicum.shareit.sql;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Listens to every JDBC execution of the application data source. Feeds the current {@link SqlCapture},
+ * keeps the latest requests with repeated statement shapes (N+1) and the latest slow statements
+ * for {@code /actuator/sql}, and optionally explains slow selects on a background thread.
+ * Slow statements keep only the types of their bind values, which may be emails or other personal data.
+ * With {@code shareit.sql.plans.sample} it also keeps the first bind values of every query shape,
+ * so {@link SqlPlanChecker} can explain each query the application has run.
+ */
+@Slf4j
+@Component
+public class SqlInspector implements QueryExecutionListener, DisposableBean {
+    private static final int RECENT = 50;
+    private static final int MAX_SAMPLES = 1_000;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern EXPLAINABLE = Pattern.compile("(select|with|update|delete)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private final long slowThresholdMillis;
+    private final int repeatThreshold;
+    private final boolean explainSlow;
+    private final boolean samplePlans;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong statements = new AtomicLong();
+    private final Recent<RepeatedStatements> recentRepeats = new Recent<>();
+    private final Recent<SlowStatement> recentSlow = new Recent<>();
+    private final ConcurrentMap<String, Sample> samples = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), runnable -> {
+                Thread thread = new Thread(runnable, "sql-explain");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+    private volatile DataSource explainDataSource;
+
+    public SqlInspector(@Value("${shareit.sql.slow-threshold:200ms}") Duration slowThreshold,
+                        @Value("${shareit.sql.repeat-threshold:5}") int repeatThreshold,
+                        @Value("${shareit.sql.explain-slow:false}") boolean explainSlow,
+                        @Value("${shareit.sql.plans.sample:false}") boolean samplePlans) {
+        this.slowThresholdMillis = slowThreshold.toMillis();
+        this.repeatThreshold = repeatThreshold;
+        this.explainSlow = explainSlow;
+        this.samplePlans = samplePlans;
+    }
+
+    // the raw pool, so plans are fetched without being inspected themselves
+    void setExplainDataSource(DataSource dataSource) {
+        this.explainDataSource = dataSource;
+    }
+
+    DataSource getExplainDataSource() {
+        return explainDataSource;
+    }
+
+    boolean isSamplingPlans() {
+        return samplePlans;
+    }
+
+    List<Sample> samples() {
+        return List.copyOf(samples.values());
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        statements.incrementAndGet();
+        List<String> shapes = queries.stream().map(query -> shape(query.getQuery())).toList();
+        SqlCapture.record(shapes, execution.getElapsedTime());
+
+        if (samplePlans && !execution.isBatch()) {
+            for (int i = 0; i < queries.size(); i++) {
+                sample(shapes.get(i), queries.get(i));
+            }
+        }
+
+        if (execution.getElapsedTime() >= slowThresholdMillis) {
+            for (int i = 0; i < queries.size(); i++) {
+                slow(shapes.get(i), queries.get(i), execution);
+            }
+        }
+    }
+
+    void onRequest(SqlReport report) {
+        requests.incrementAndGet();
+        Map<String, Integer> repeated = report.repeated(repeatThreshold);
+        if (repeated.isEmpty()) {
+            log.debug("{} executed {} SQL statements in {} ms", report.label(), report.statements(),
+                    report.elapsedMillis());
+            return;
+        }
+        log.warn("{} executed {} SQL statements, repeated shapes look like N+1: {}", report.label(),
+                report.statements(), repeated);
+        recentRepeats.add(new RepeatedStatements(LocalDateTime.now(), report.label(), report.statements(), repeated));
+    }
+
+    Summary summary() {
+        return new Summary(requests.get(), statements.get(), slowThresholdMillis, repeatThreshold,
+                recentRepeats.snapshot(), recentSlow.snapshot());
+    }
+
+    @Override
+    public void destroy() {
+        explainer.shutdownNow();
+    }
+
+    private void slow(String shape, QueryInfo query, ExecutionInfo execution) {
+        List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+                ? List.of()
+                : query.getParametersList().getFirst();
+        SlowStatement statement = new SlowStatement(LocalDateTime.now(), SqlCapture.currentLabel(), shape,
+                mask(parameters), execution.getElapsedTime(), execution.isBatch() ? execution.getBatchSize() : 1);
+        log.warn("Slow SQL, {} ms during {}: {} with {}", statement.getElapsedMillis(), statement.getRequest(),
+                shape, statement.getParameters());
+        recentSlow.add(statement);
+
+        DataSource dataSource = explainDataSource;
+        if (explainSlow && dataSource != null && !execution.isBatch()
+                && shape.toLowerCase(Locale.ROOT).startsWith("select")) {
+            explainer.execute(() -> explain(dataSource, statement, query.getQuery(), parameters));
+        }
+    }
+
+    private void sample(String shape, QueryInfo query) {
+        if (samples.size() >= MAX_SAMPLES || samples.containsKey(shape) || !EXPLAINABLE.matcher(shape).lookingAt()) {
+            return;
+        }
+        List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+                ? List.of()
+                : List.copyOf(query.getParametersList().getFirst());
+        samples.putIfAbsent(shape, new Sample(shape, query.getQuery(), parameters, describe(parameters)));
+    }
+
+    // EXPLAIN ANALYZE runs the select again, inside a read-only transaction that is always rolled back
+    private static void explain(DataSource dataSource, SlowStatement statement, String sql,
+                                List<ParameterSetOperation> parameters) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                for (ParameterSetOperation parameter : parameters) {
+                    parameter.getMethod().invoke(explain, parameter.getArgs());
+                }
+                StringJoiner plan = new StringJoiner(System.lineSeparator());
+                try (ResultSet rows = explain.executeQuery()) {
+                    while (rows.next()) {
+                        plan.add(rows.getString(1));
+                    }
+                }
+                statement.plan = plan.toString();
+                log.info("Plan of slow SQL {}:{}{}", statement.getStatement(), System.lineSeparator(), statement.plan);
+            } finally {
+                connection.rollback();
+            }
+        } catch (Exception e) {
+            log.warn("Could not explain slow SQL {}", statement.getStatement(), e);
+        }
+    }
+
+    private static String shape(String sql) {
+        return WHITESPACE.matcher(sql).replaceAll(" ").trim();
+    }
+
+    private static String describe(List<ParameterSetOperation> parameters) {
+        return join(parameters, String::valueOf);
+    }
+
+    private static String mask(List<ParameterSetOperation> parameters) {
+        return join(parameters, value -> value.getClass().getSimpleName());
+    }
+
+    private static String join(List<ParameterSetOperation> parameters, Function<Object, String> format) {
+        StringJoiner values = new StringJoiner(", ", "[", "]");
+        parameters.stream()
+                .filter(parameter -> !ParameterSetOperation.isRegisterOutParameterOperation(parameter))
+                .sorted(Comparator.comparingInt(parameter -> parameter.getArgs()[0] instanceof Integer index ? index : 0))
+                .forEach(parameter -> values.add(ParameterSetOperation.isSetNullParameterOperation(parameter)
+                        ? "null"
+                        : format.apply(parameter.getArgs()[1])));
+        return values.toString();
+    }
+
+    public record Summary(long requests, long statements, long slowThresholdMillis, int repeatThreshold,
+                          List<RepeatedStatements> recentRepeats, List<SlowStatement> recentSlow) {
+    }
+
+    record Sample(String shape, String sql, List<ParameterSetOperation> parameters, String describedParameters) {
+    }
+
+    public record RepeatedStatements(LocalDateTime at, String request, int statements, Map<String, Integer> repeated) {
+    }
+
+    @Getter
+    public static final class SlowStatement {
+        private final LocalDateTime at;
+        private final String request;
+        private final String statement;
+        private final String parameters;
+        private final long elapsedMillis;
+        private final int batchSize;
+        private volatile String plan;
+
+        private SlowStatement(LocalDateTime at, String request, String statement, String parameters,
+                              long elapsedMillis, int batchSize) {
+            this.at = at;
+            this.request = request;
+            this.statement = statement;
+            this.parameters = parameters;
+            this.elapsedMillis = elapsedMillis;
+            this.batchSize = batchSize;
+        }
+    }
+
+    private static final class Recent<T> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Deque<T> entries = new ArrayDeque<>(RECENT);
+
+        void add(T entry) {
+            lock.lock();
+            try {
+                if (entries.size() == RECENT) {
+                    entries.removeLast();
+                }
+                entries.addFirst(entry);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<T> snapshot() {
+            lock.lock();
+            try {
+                return List.copyOf(entries);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
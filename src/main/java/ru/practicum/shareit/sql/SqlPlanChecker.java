@@ -0,0 +1,138 @@
+package ru.practicum.shareit.sql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Explains every query shape sampled by the {@link SqlInspector} with its first bind values and flags
+ * sequential scans of large tables. A full read of one table is fine; a sequential scan that filters rows
+ * or feeds a join means an index is missing. Plain EXPLAIN only plans the statement, nothing is executed.
+ */
+@Slf4j
+@Component
+public class SqlPlanChecker {
+    private static final String TABLE_ROWS = "SELECT relname, reltuples FROM pg_class " +
+            "WHERE relkind IN ('r', 'p') AND relnamespace = to_regnamespace(current_schema())";
+
+    private final SqlInspector sqlInspector;
+    private final ObjectMapper objectMapper;
+    private final long largeTableRows;
+
+    public SqlPlanChecker(SqlInspector sqlInspector, ObjectMapper objectMapper,
+                          @Value("${shareit.sql.plans.large-table-rows:10000}") long largeTableRows) {
+        this.sqlInspector = sqlInspector;
+        this.objectMapper = objectMapper;
+        this.largeTableRows = largeTableRows;
+    }
+
+    Report check() {
+        DataSource dataSource = sqlInspector.getExplainDataSource();
+        if (!sqlInspector.isSamplingPlans() || dataSource == null) {
+            return new Report(false, largeTableRows, 0, List.of());
+        }
+        List<Checked> checked = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            try {
+                Map<String, Long> tableRows = tableRows(connection);
+                for (SqlInspector.Sample sample : sqlInspector.samples()) {
+                    checked.add(check(connection, sample, tableRows));
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not check query plans", e);
+        }
+        checked.sort(Comparator.comparing(Checked::regression).reversed().thenComparing(Checked::statement));
+        return new Report(true, largeTableRows, (int) checked.stream().filter(Checked::regression).count(), checked);
+    }
+
+    private Checked check(Connection connection, SqlInspector.Sample sample, Map<String, Long> tableRows) {
+        JsonNode plan;
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sample.sql())) {
+            for (ParameterSetOperation parameter : sample.parameters()) {
+                parameter.getMethod().invoke(explain, parameter.getArgs());
+            }
+            try (ResultSet rows = explain.executeQuery()) {
+                rows.next();
+                plan = objectMapper.readTree(rows.getString(1)).get(0).get("Plan");
+            }
+            connection.rollback();
+        } catch (Exception e) {
+            log.warn("Could not explain {}", sample.shape(), e);
+            rollbackQuietly(connection);
+            return new Checked(sample.shape(), sample.describedParameters(), List.of(), false, e.toString(), null);
+        }
+
+        List<JsonNode> scans = new ArrayList<>();
+        collectScans(plan, scans);
+        // scans of system catalogs by Flyway and schema validation aren't ours to index
+        List<SeqScan> seqScans = scans.stream()
+                .filter(scan -> "Seq Scan".equals(scan.path("Node Type").asText())
+                        && tableRows.containsKey(scan.path("Relation Name").asText()))
+                .map(scan -> {
+                    String table = scan.path("Relation Name").asText();
+                    return new SeqScan(table, tableRows.get(table), scan.has("Filter"));
+                })
+                .toList();
+        boolean regression = seqScans.stream()
+                .anyMatch(scan -> scan.tableRows() >= largeTableRows && (scan.filtered() || scans.size() > 1));
+        return new Checked(sample.shape(), sample.describedParameters(), seqScans, regression, null,
+                regression ? plan : null);
+    }
+
+    private static void collectScans(JsonNode node, List<JsonNode> scans) {
+        if (node.has("Relation Name")) {
+            scans.add(node);
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectScans(child, scans);
+        }
+    }
+
+    private static Map<String, Long> tableRows(Connection connection) throws SQLException {
+        Map<String, Long> rows = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(TABLE_ROWS);
+             ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                rows.put(result.getString(1), Math.max(0, (long) result.getFloat(2)));
+            }
+        }
+        return rows;
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            log.warn("Could not roll back after a failed EXPLAIN", e);
+        }
+    }
+
+    public record Report(boolean sampling, long largeTableRows, int regressions, List<Checked> statements) {
+    }
+
+    public record Checked(String statement, String parameters, List<SeqScan> seqScans, boolean regression,
+                          String error, JsonNode plan) {
+    }
+
+    public record SeqScan(String table, long tableRows, boolean filtered) {
+    }
+}
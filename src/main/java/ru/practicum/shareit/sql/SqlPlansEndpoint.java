@@ -0,0 +1,18 @@
+package ru.practicum.shareit.sql;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "sqlplans")
+@RequiredArgsConstructor
+public class SqlPlansEndpoint {
+    private final SqlPlanChecker sqlPlanChecker;
+
+    @ReadOperation
+    public SqlPlanChecker.Report plans() {
+        return sqlPlanChecker.check();
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.sql;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of a {@link SqlCapture}: round trips to the database and how often each statement shape ran.
+ * A shape is the SQL text with bind placeholders, so the same query for different ids counts as one shape.
+ */
+public record SqlReport(String label, int statements, long elapsedMillis, Map<String, Integer> shapes) {
+
+    public Map<String, Integer> repeated(int threshold) {
+        return shapes.entrySet().stream()
+                .filter(shape -> shape.getValue() >= threshold)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    public SqlReport assertStatementsAtMost(int max) {
+        if (statements > max) {
+            throw new AssertionError("%s: expected at most %d SQL statements, got %d%n%s"
+                    .formatted(label, max, statements, describe(shapes)));
+        }
+        return this;
+    }
+
+    public SqlReport assertNoRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = repeated(threshold);
+        if (!repeated.isEmpty()) {
+            throw new AssertionError("%s: statements repeated %d or more times, likely N+1%n%s"
+                    .formatted(label, threshold, describe(repeated)));
+        }
+        return this;
+    }
+
+    private static String describe(Map<String, Integer> shapes) {
+        return shapes.entrySet().stream()
+                .map(shape -> "%5dx %s".formatted(shape.getValue(), shape.getKey()))
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+}
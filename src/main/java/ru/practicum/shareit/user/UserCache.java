@@ -0,0 +1,32 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Users by id as immutable {@link UserView}s, read without managed entities, so a cached user holds no session
+ * state and can be shared between requests. Unknown ids aren't cached. Writers evict after commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCache {
+    public static final String CACHE = "users";
+
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+
+    @Cacheable(cacheNames = CACHE, key = "#p0", unless = "#result == null")
+    public Optional<UserView> find(Long id) {
+        return userRepository.findViewById(id);
+    }
+
+    public void evict(Long id) {
+        TransactionHooks.afterCommit(() -> Objects.requireNonNull(cacheManager.getCache(CACHE)).evict(id));
+    }
+}
@@ -10,6 +10,10 @@ public class UserMapper {
                 .email(user.getEmail()).build();
     }
 
+    public static UserDto toUserDto(UserView user) {
+        return UserDto.builder().id(user.id()).name(user.name()).email(user.email()).build();
+    }
+
     public static User toUser(UserDto dto) {
         return User.builder().id(dto.getId()).name(dto.getName())
                 .email(dto.getEmail()).build();
@@ -1,8 +1,24 @@
 package ru.practicum.shareit.user;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+import java.util.stream.Stream;
+
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @Query("SELECT new ru.practicum.shareit.user.UserView(u.id, u.name, u.email) FROM User u WHERE u.id = ?1")
+    Optional<UserView> findViewById(Long id);
+
+    boolean existsByEmail(String email);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
 }
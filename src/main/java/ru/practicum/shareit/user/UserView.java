@@ -0,0 +1,9 @@
+package ru.practicum.shareit.user;
+
+public record UserView(Long id, String name, String email) {
+
+    // a detached copy for new rows to reference, never saved itself
+    public User toUser() {
+        return User.builder().id(id).name(name).email(email).build();
+    }
+}
@@ -1,29 +1,42 @@
 package ru.practicum.shareit.user.impl;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.MetricsConfig;
 import ru.practicum.shareit.error.exception.DublicatingEmailException;
 import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.user.EmailBloomFilter;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dto.UserDto;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    private static final String EMAIL_CONSTRAINT = "uq_user_email";
+
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final EmailBloomFilter emailBloomFilter;
 
     @Override
     public UserDto getById(Long id) {
-        return userRepository.findById(id).map(UserMapper::toUserDto)
+        return userCache.find(id).map(UserMapper::toUserDto)
                 .orElseThrow(
                         () -> new NotFoundException("User with id - %d not found".formatted(id))
                 );
     }
 
     @Override
+    @Transactional
     public UserDto editById(Long id, UserDto userDto) {
 
         User oldUser = userRepository.findById(id).orElseThrow(
@@ -42,27 +55,45 @@ public class UserServiceImpl implements UserService {
             }
         }
 
-        return UserMapper.toUserDto(userRepository.save(oldUser));
+        return UserMapper.toUserDto(saveUser(oldUser));
     }
 
     @Override
+    @Transactional
     public UserDto create(UserDto userDto) {
         if (!isDistinctEmail(userDto.getEmail())) {
             throw new DublicatingEmailException("User with email - %s is already exist"
                     .formatted(userDto.getEmail()));
         }
-        return UserMapper.toUserDto(userRepository
-                .save(UserMapper.toUser(userDto)));
+        return UserMapper.toUserDto(saveUser(UserMapper.toUser(userDto)));
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
         getById(id);
         userRepository.deleteById(id);
+        userCache.evict(id);
     }
 
     private boolean isDistinctEmail(String email) {
-        return userRepository.findAll().stream()
-                .noneMatch(user -> user.getEmail().equals(email));
+        return !emailBloomFilter.mightContain(email) || !userRepository.existsByEmail(email);
+    }
+
+    // the unique index still decides when two requests claim the same email at once
+    private User saveUser(User user) {
+        try {
+            User saved = userRepository.saveAndFlush(user);
+            emailBloomFilter.add(saved.getEmail());
+            userCache.evict(saved.getId());
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && EMAIL_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName())) {
+                throw new DublicatingEmailException("User with email - %s is already exist"
+                        .formatted(user.getEmail()));
+            }
+            throw e;
+        }
     }
 }
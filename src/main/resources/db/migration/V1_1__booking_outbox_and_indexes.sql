@@ -0,0 +1,30 @@
+-- Objects added on top of the previous schema.sql, which V1 reproduces as it was: the transactional outbox of
+-- booking changes (see BookingOutbox) and the first indexes for booking pages, comment checks and owners' items.
+-- A database created by schema.sql before Flyway is baselined at version 1 and starts here.
+
+CREATE TABLE booking_outbox (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  booking_id BIGINT NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  owner_id BIGINT NOT NULL,
+  status VARCHAR NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_booking_outbox PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_booking_outbox_booker ON booking_outbox (booker_id, id);
+
+CREATE INDEX idx_booking_outbox_owner ON booking_outbox (owner_id, id);
+
+CREATE INDEX idx_booking_outbox_created ON booking_outbox (created_at);
+
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+
+CREATE INDEX idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+
+CREATE INDEX idx_items_owner ON items (owner_id);
+
+CREATE INDEX idx_bookings_booker_item_status_end ON bookings (booker_id, item_id, status, end_date);
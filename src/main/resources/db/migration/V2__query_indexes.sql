@@ -0,0 +1,9 @@
+-- Indexes for the repository queries that still scanned a table, found with the plan check (see README).
+-- CONCURRENTLY keeps bookings writable while the index builds; Flyway runs this script outside a transaction.
+
+-- active periods per item (interval index loads, availability) and last booking dates:
+-- item_id with an end_date range, status and start_date included for index-only scans
+CREATE INDEX CONCURRENTLY idx_bookings_item_end ON bookings (item_id, end_date) INCLUDE (status, start_date);
+
+-- comments of the items on a page, in the order they are shown
+CREATE INDEX CONCURRENTLY idx_comments_item_created ON comments (item_id, created);
@@ -0,0 +1,74 @@
+-- Bookings range-partitioned by end_date, so the archiver and queries bounded by end only touch recent months,
+-- plus bookings_archive for finished bookings older than shareit.bookings.archive.after (see BookingArchiver).
+-- Rewrites the table in one transaction: bookings are unavailable while it runs.
+
+-- the old table gives up its identity sequence and index names to the new one
+ALTER TABLE bookings RENAME TO bookings_unpartitioned;
+ALTER TABLE bookings_unpartitioned ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE bookings_unpartitioned DROP CONSTRAINT pk_booking;
+DROP INDEX IF EXISTS idx_bookings_booker_start;
+DROP INDEX IF EXISTS idx_bookings_item_start;
+DROP INDEX IF EXISTS idx_bookings_booker_item_status_end;
+DROP INDEX IF EXISTS idx_bookings_item_end;
+
+-- the partition key has to be part of the primary key; end_date of a booking never changes, so rows never move
+CREATE TABLE bookings (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  status VARCHAR NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  CONSTRAINT fk_item FOREIGN KEY(item_id) REFERENCES items(id),
+  CONSTRAINT fk_booker FOREIGN KEY(booker_id) REFERENCES users(id),
+  CONSTRAINT pk_booking PRIMARY KEY (id, end_date)
+) PARTITION BY RANGE (end_date);
+
+-- everything that ended before this month, the current month and three ahead; the archiver creates the rest of
+-- shareit.bookings.archive.months-ahead and drops the old partitions it has emptied; later bookings go to the default
+DO $$
+DECLARE
+  month_start DATE := date_trunc('month', now());
+BEGIN
+  EXECUTE format('CREATE TABLE bookings_before PARTITION OF bookings FOR VALUES FROM (MINVALUE) TO (%L)',
+                 month_start);
+  FOR i IN 0..3 LOOP
+    EXECUTE format('CREATE TABLE %I PARTITION OF bookings FOR VALUES FROM (%L) TO (%L)',
+                   to_char(month_start + make_interval(months => i), '"bookings_y"YYYY"m"MM'),
+                   month_start + make_interval(months => i), month_start + make_interval(months => i + 1));
+  END LOOP;
+END $$;
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+INSERT INTO bookings (id, start_date, end_date, status, item_id, booker_id)
+SELECT id, start_date, end_date, status, item_id, booker_id FROM bookings_unpartitioned;
+SELECT setval(pg_get_serial_sequence('bookings', 'id'), COALESCE(MAX(id), 0) + 1, false) FROM bookings;
+DROP TABLE bookings_unpartitioned;
+
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX idx_bookings_booker_item_status_end ON bookings (booker_id, item_id, status, end_date);
+CREATE INDEX idx_bookings_item_end ON bookings (item_id, end_date) INCLUDE (status, start_date);
+-- the archiver takes the oldest rows first
+CREATE INDEX idx_bookings_end ON bookings (end_date);
+-- autovacuum never analyzes a partitioned table itself
+ANALYZE bookings;
+
+-- cold storage: the same columns, keyed by the id the booking had in bookings, read only through
+-- the indexes of the history queries (pages, exports, comment eligibility, last booking per item)
+CREATE TABLE bookings_archive (
+  id BIGINT NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  status VARCHAR NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  CONSTRAINT fk_archive_item FOREIGN KEY(item_id) REFERENCES items(id),
+  CONSTRAINT fk_archive_booker FOREIGN KEY(booker_id) REFERENCES users(id),
+  CONSTRAINT pk_booking_archive PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date DESC, id DESC);
+CREATE INDEX idx_bookings_archive_item_start ON bookings_archive (item_id, start_date DESC, id DESC);
+CREATE INDEX idx_bookings_archive_booker_item_status_end ON bookings_archive (booker_id, item_id, status, end_date);
+CREATE INDEX idx_bookings_archive_item_end ON bookings_archive (item_id, end_date) INCLUDE (status);
@@ -0,0 +1,18 @@
+-- ids of the entities come from sequences stepping by 50, so Hibernate reserves 50 ids per nextval (pooled-lo)
+-- and can batch inserts, which it can't with identity columns. Existing ids are kept: each sequence continues after
+-- the highest id its identity sequence handed out or the table holds (bookings_archive keeps ids of bookings too).
+-- The column default still draws from the sequence for plain SQL inserts, each of which then skips 49 ids.
+-- allocationSize in the entity mappings has to match INCREMENT BY.
+DO $$
+DECLARE
+  t TEXT;
+  next_id BIGINT;
+BEGIN
+  FOREACH t IN ARRAY ARRAY['users', 'requests', 'items', 'bookings', 'comments'] LOOP
+    EXECUTE format('SELECT GREATEST(COALESCE(MAX(id), 0), COALESCE(pg_sequence_last_value(%L), 0)) + 1 FROM %I',
+                   pg_get_serial_sequence(t, 'id'), t) INTO next_id;
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY', t);
+    EXECUTE format('CREATE SEQUENCE %I INCREMENT BY 50 START WITH %s OWNED BY %I.id', t || '_seq', next_id, t);
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', t, t || '_seq');
+  END LOOP;
+END $$;
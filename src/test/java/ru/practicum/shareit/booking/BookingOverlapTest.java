@@ -0,0 +1,156 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.error.exception.BookingOverlapException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs BookingService.create against the database in application.properties: overlapping requests for one item
+ * racing each other, and a create whose transaction rolls back after the interval index took the period.
+ */
+@Tag("db")
+@SpringBootTest
+class BookingOverlapTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final List<Long> bookerIds = new ArrayList<>();
+    private final LocalDateTime start = LocalDateTime.now().plusDays(30).withNano(0);
+    private Long ownerId;
+    private Long itemId;
+
+    @BeforeEach
+    void seed() {
+        ownerId = createUser("owner").getId();
+        for (int i = 0; i < THREADS; i++) {
+            bookerIds.add(createUser("booker" + i).getId());
+        }
+        itemId = itemService.create(ItemDto.builder().name("ladder").description("booking overlap")
+                .available(true).build(), ownerId).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM bookings WHERE item_id = ?", itemId);
+        jdbcTemplate.update("DELETE FROM booking_outbox WHERE item_id = ?", itemId);
+        jdbcTemplate.update("DELETE FROM items WHERE id = ?", itemId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", ownerId);
+        bookerIds.forEach(bookerId -> jdbcTemplate.update("DELETE FROM users WHERE id = ?", bookerId));
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+        bookerIds.clear();
+    }
+
+    @Test
+    void concurrentOverlappingCreatesAcceptExactlyOne() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Long>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                Long bookerId = bookerIds.get(i);
+                // every period shares the hour after start + THREADS hours with every other one
+                BookingRequestDto request = request(start.plusHours(i), start.plusHours(THREADS + 1 + i));
+                attempts.add(executor.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    return bookingService.create(request, bookerId).getId();
+                }));
+            }
+            ready.await(1, TimeUnit.MINUTES);
+            go.countDown();
+
+            List<Long> created = new ArrayList<>();
+            int rejected = 0;
+            for (Future<Long> attempt : attempts) {
+                try {
+                    created.add(attempt.get(1, TimeUnit.MINUTES));
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(BookingOverlapException.class);
+                    rejected++;
+                }
+            }
+
+            assertThat(created).hasSize(1);
+            assertThat(rejected).isEqualTo(THREADS - 1);
+            assertThat(jdbcTemplate.queryForList("SELECT id FROM bookings WHERE item_id = ?", Long.class, itemId))
+                    .containsExactlyElementsOf(created);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rolledBackCreateFreesThePeriodInTheIndex() {
+        BookingRequestDto request = request(start, start.plusHours(2));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingService.create(request, bookerIds.get(0));
+            assertThat(isFree(request)).isFalse();
+            status.setRollbackOnly();
+        });
+
+        assertThat(isFree(request)).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM bookings WHERE item_id = ?", Long.class, itemId))
+                .isZero();
+        assertThat(bookingService.create(request, bookerIds.get(1)).getId()).isNotNull();
+    }
+
+    private boolean isFree(BookingRequestDto request) {
+        return bookingIntervalIndex.withItemLock(itemId,
+                () -> bookingIntervalIndex.isFree(itemId, request.getStart(), request.getEnd()));
+    }
+
+    private BookingRequestDto request(LocalDateTime from, LocalDateTime to) {
+        BookingRequestDto request = new BookingRequestDto();
+        request.setItemId(itemId);
+        request.setStart(from);
+        request.setEnd(to);
+        return request;
+    }
+
+    private UserDto createUser(String name) {
+        return userService.create(UserDto.builder().name(name)
+                .email(name + "-" + System.nanoTime() + "@booking-overlap.test").build());
+    }
+}
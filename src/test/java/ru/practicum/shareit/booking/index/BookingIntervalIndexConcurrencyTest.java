@@ -0,0 +1,156 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.Item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class BookingIntervalIndexConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 2_000;
+    private static final long ITEMS = 4;
+    private static final int SLOTS = 2_000;
+
+    private final BookingIntervalIndex index = new BookingIntervalIndex(mock(BookingRepository.class));
+    private final LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+    private final AtomicLong bookingIds = new AtomicLong();
+
+    @Test
+    void concurrentCreatesNeverAcceptOverlappingBookings() throws Exception {
+        Queue<Booking> accepted = new ConcurrentLinkedQueue<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        Booking booking = booking(random.nextLong(ITEMS) + 1, random.nextInt(SLOTS),
+                                1 + random.nextInt(5));
+                        if (tryBook(booking)) {
+                            accepted.add(booking);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            // lock-free readers run against snapshots that writers keep replacing
+            Future<?> reader = executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (writing.get()) {
+                    LocalDateTime from = base.plusHours(random.nextInt(SLOTS));
+                    index.availableDuring(from, from.plusHours(1)).test(random.nextLong(ITEMS) + 1);
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(1, TimeUnit.MINUTES);
+            }
+            writing.set(false);
+            reader.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(accepted).isNotEmpty();
+        Map<Long, List<Booking>> byItem = accepted.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        byItem.forEach((itemId, bookings) -> {
+            List<Booking> sorted = bookings.stream().sorted(Comparator.comparing(Booking::getStart)).toList();
+            for (int i = 1; i < sorted.size(); i++) {
+                assertThat(sorted.get(i).getStart())
+                        .as("item %d: booking %d overlaps booking %d", itemId, sorted.get(i).getId(),
+                                sorted.get(i - 1).getId())
+                        .isAfterOrEqualTo(sorted.get(i - 1).getEnd());
+            }
+        });
+        for (Booking booking : accepted) {
+            Long itemId = booking.getItem().getId();
+            assertThat(index.withItemLock(itemId, () -> index.isFree(itemId, booking.getStart(), booking.getEnd())))
+                    .as("booking %d is missing from the index", booking.getId())
+                    .isFalse();
+        }
+    }
+
+    @Test
+    void readersAlwaysSeeACompleteSnapshotWhileWritersReplaceIt() throws Exception {
+        ItemIntervals intervals = ItemIntervals.of(List.of());
+        long now = BookingIntervalIndex.toMicros(LocalDateTime.now());
+        long hour = TimeUnit.HOURS.toMicros(1);
+        long pinnedStart = now + 1_000 * hour;
+        intervals.add(-1, pinnedStart, pinnedStart + hour, now);
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    long start = now + (i % 500) * hour;
+                    intervals.add(i, start, start + hour / 2, now);
+                    intervals.remove(i, now);
+                }
+                writing.set(false);
+            });
+            Future<Long> reader = executor.submit(() -> {
+                long misses = 0;
+                while (writing.get()) {
+                    if (!intervals.overlaps(pinnedStart, pinnedStart + 1)) {
+                        misses++;
+                    }
+                }
+                return misses;
+            });
+            writer.get(1, TimeUnit.MINUTES);
+            assertThat(reader.get(1, TimeUnit.MINUTES)).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean tryBook(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        return index.withItemLock(itemId, () -> {
+            if (!index.isFree(itemId, booking.getStart(), booking.getEnd())) {
+                return false;
+            }
+            index.add(booking);
+            return true;
+        });
+    }
+
+    private Booking booking(long itemId, int startHour, int hours) {
+        LocalDateTime start = base.plusHours(startHour);
+        return Booking.builder()
+                .id(bookingIds.incrementAndGet())
+                .item(Item.builder().id(itemId).build())
+                .start(start)
+                .end(start.plusHours(hours))
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.enums.BookingEventType;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.event.BookingEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CompletedBookingIndexTest {
+    private static final long BOOKER = 1;
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final ArchivedBookingRepository archivedBookingRepository = mock(ArchivedBookingRepository.class);
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+
+    @Test
+    void approvedBookingCountsOnceItEnds() {
+        CompletedBookingIndex index = index(10);
+        index.onBookingEvents(List.of(approved(1L, now.plusHours(1))));
+
+        assertThat(index.hasCompleted(BOOKER, 1L, now)).isFalse();
+        assertThat(index.hasCompleted(BOOKER, 1L, now.plusHours(2))).isTrue();
+
+        // only the check before the end asked the database
+        verify(bookingRepository, times(1)).existsByBookerIdAndItemIdAndStatusAndEndBefore(eq(BOOKER), eq(1L),
+                eq(BookingStatus.APPROVED), any(LocalDateTime.class));
+    }
+
+    @Test
+    void eventsDrainEndedBookingsBeforeTheyQueue() {
+        CompletedBookingIndex index = index(1);
+        index.onBookingEvents(List.of(approved(1L, now.minusMinutes(1))));
+        // the first booking has ended, so it leaves the full queue and makes room for the second
+        index.onBookingEvents(List.of(approved(2L, now.plusHours(1))));
+
+        assertThat(index.hasCompleted(BOOKER, 1L, now)).isTrue();
+        assertThat(index.hasCompleted(BOOKER, 2L, now.plusHours(2))).isTrue();
+        verify(bookingRepository, never()).existsByBookerIdAndItemIdAndStatusAndEndBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    void approvalsPastTheCapAreLeftToTheQuery() {
+        CompletedBookingIndex index = index(1);
+        index.onBookingEvents(List.of(approved(1L, now.plusHours(1)), approved(2L, now.plusHours(1))));
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(eq(BOOKER), eq(2L),
+                eq(BookingStatus.APPROVED), any(LocalDateTime.class))).thenReturn(true);
+
+        assertThat(index.hasCompleted(BOOKER, 1L, now.plusHours(2))).isTrue();
+        assertThat(index.hasCompleted(BOOKER, 2L, now.plusHours(2))).isTrue();
+        verify(bookingRepository, never()).existsByBookerIdAndItemIdAndStatusAndEndBefore(eq(BOOKER), eq(1L),
+                any(), any());
+        verify(bookingRepository).existsByBookerIdAndItemIdAndStatusAndEndBefore(eq(BOOKER), eq(2L), any(), any());
+    }
+
+    @Test
+    void withoutEventsTheQueryDecidesAndPositiveAnswersAreKept() {
+        CompletedBookingIndex index = index(10);
+        when(archivedBookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(BOOKER, 1L,
+                BookingStatus.APPROVED, now)).thenReturn(true);
+
+        assertThat(index.hasCompleted(BOOKER, 1L, now)).isTrue();
+        assertThat(index.hasCompleted(BOOKER, 1L, now)).isTrue();
+        verify(bookingRepository, times(1)).existsByBookerIdAndItemIdAndStatusAndEndBefore(BOOKER, 1L,
+                BookingStatus.APPROVED, now);
+        verify(archivedBookingRepository, times(1)).existsByBookerIdAndItemIdAndStatusAndEndBefore(BOOKER, 1L,
+                BookingStatus.APPROVED, now);
+    }
+
+    @Test
+    void negativeAnswersAreAskedAgain() {
+        CompletedBookingIndex index = index(10);
+
+        assertThat(index.hasCompleted(BOOKER, 1L, now)).isFalse();
+        assertThat(index.hasCompleted(BOOKER, 1L, now)).isFalse();
+        verify(bookingRepository, times(2)).existsByBookerIdAndItemIdAndStatusAndEndBefore(BOOKER, 1L,
+                BookingStatus.APPROVED, now);
+    }
+
+    private CompletedBookingIndex index(int maxPending) {
+        return new CompletedBookingIndex(bookingRepository, archivedBookingRepository, 1_000, maxPending);
+    }
+
+    private BookingEvent approved(Long itemId, LocalDateTime end) {
+        return new BookingEvent(BookingEventType.APPROVED, itemId, itemId, BOOKER, end.minusHours(1), end, 0);
+    }
+}
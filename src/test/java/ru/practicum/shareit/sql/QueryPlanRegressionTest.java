@@ -0,0 +1,148 @@
+package ru.practicum.shareit.sql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import ru.practicum.shareit.booking.enums.BookingState;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The plan check of the load profile as a test: tops the database of application.properties up with
+ * {@link SyntheticData} ({@code -Dplan.seed}, 100000 bookings by default), calls every endpoint that reaches
+ * the database and fails if {@link SqlPlanChecker} finds a large table scanned sequentially.
+ */
+@Tag("db")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit.sql.plans.sample=true",
+        "shareit.bookings.archive.enabled=false"})
+class QueryPlanRegressionTest {
+    private static final int SEED = Integer.getInteger("plan.seed", 100_000);
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private SqlInspector sqlInspector;
+    @Autowired
+    private SqlPlanChecker sqlPlanChecker;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @LocalServerPort
+    private int port;
+
+    private DataSource dataSource;
+    private RestClient client;
+
+    @Test
+    void everyQueryUsesAnIndexOnLargeTables() throws Exception {
+        // seeding goes through the raw pool, so its statements aren't sampled and checked
+        dataSource = sqlInspector.getExplainDataSource();
+        try (Connection connection = dataSource.getConnection()) {
+            SyntheticData.seed(connection, SEED);
+        }
+        client = RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .requestFactory(new JdkClientHttpRequestFactory())
+                .build();
+
+        exerciseEndpoints();
+
+        SqlPlanChecker.Report report = sqlPlanChecker.check();
+        assertThat(report.sampling()).isTrue();
+        assertThat(report.statements()).isNotEmpty();
+        assertThat(report.regressions())
+                .as("statements scanning a table of %d+ rows sequentially:%n%s", report.largeTableRows(),
+                        report.statements().stream()
+                                .filter(SqlPlanChecker.Checked::regression)
+                                .map(checked -> checked.statement() + System.lineSeparator() + checked.plan())
+                                .collect(Collectors.joining(System.lineSeparator())))
+                .isZero();
+    }
+
+    private void exerciseEndpoints() throws Exception {
+        long owner = id(send(HttpMethod.POST, "/users", Map.of("name", "plan owner", "email", email()), null));
+        long booker = id(send(HttpMethod.POST, "/users", Map.of("name", "plan booker", "email", email()), null));
+        long itemId = id(send(HttpMethod.POST, "/items",
+                Map.of("name", "plan drill", "description", "plan check drill", "available", true), owner));
+        LocalDateTime start = LocalDateTime.now().plusYears(1).withNano(0);
+
+        long bookingId = id(send(HttpMethod.POST, "/bookings", Map.of("itemId", itemId,
+                "start", start.toString(), "end", start.plusHours(1).toString()), booker));
+        JsonNode batch = objectMapper.readTree(send(HttpMethod.POST, "/bookings/batch", List.of(
+                Map.of("itemId", itemId, "start", start.plusHours(2).toString(), "end", start.plusHours(3).toString()),
+                Map.of("itemId", itemId, "start", start.plusHours(4).toString(), "end", start.plusHours(5).toString())),
+                booker));
+        long batchedId = batch.path(0).path("booking").path("id").asLong();
+        send(HttpMethod.PATCH, "/bookings/" + bookingId + "?approved=true", null, owner);
+        send(HttpMethod.PATCH, "/bookings/batch?approved=false", List.of(batchedId), owner);
+        send(HttpMethod.GET, "/bookings/" + bookingId, null, booker);
+        for (BookingState state : BookingState.values()) {
+            send(HttpMethod.GET, "/bookings?state=" + state, null, booker);
+            send(HttpMethod.GET, "/bookings/owner?state=" + state, null, owner);
+        }
+        String cursor = client.get().uri("/bookings?size=1").header(USER_HEADER, Long.toString(booker))
+                .retrieve().toBodilessEntity().getHeaders().getFirst("X-Next-Cursor");
+        send(HttpMethod.GET, "/bookings?size=1&cursor=" + cursor, null, booker);
+        send(HttpMethod.GET, "/bookings/export", null, booker);
+        send(HttpMethod.GET, "/bookings/owner/export", null, owner);
+
+        send(HttpMethod.GET, "/items", null, owner);
+        send(HttpMethod.GET, "/items/" + itemId, null, owner);
+        send(HttpMethod.GET, "/items/" + itemId, null, booker);
+        send(HttpMethod.PATCH, "/items/" + itemId, Map.of("description", "plan check drill, edited"), owner);
+        send(HttpMethod.GET, "/items/search?text=drill", null, null);
+        send(HttpMethod.GET, "/items/search?text=drill&size=5", null, null);
+        send(HttpMethod.GET, "/items/available?start=%s&end=%s".formatted(start, start.plusDays(1)), null, booker);
+        send(HttpMethod.GET, "/items/available?start=%s&end=%s&text=drill".formatted(start, start.plusDays(1)),
+                null, booker);
+        // commenting needs a finished booking, which the API can't create
+        LocalDateTime ended = LocalDateTime.now().minusSeconds(1).withNano(0);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO bookings "
+                     + "(start_date, end_date, status, item_id, booker_id) VALUES (?, ?, 'APPROVED', ?, ?)")) {
+            insert.setObject(1, ended.minusHours(1));
+            insert.setObject(2, ended);
+            insert.setLong(3, itemId);
+            insert.setLong(4, booker);
+            insert.executeUpdate();
+        }
+        send(HttpMethod.POST, "/items/%d/comment".formatted(itemId), Map.of("text", "plan check"), booker);
+
+        send(HttpMethod.GET, "/users/" + booker, null, null);
+        send(HttpMethod.PATCH, "/users/" + booker, Map.of("email", email()), null);
+    }
+
+    private String send(HttpMethod method, String path, Object body, Long userId) {
+        RestClient.RequestBodySpec request = client.method(method).uri(path);
+        if (userId != null) {
+            request.header(USER_HEADER, userId.toString());
+        }
+        if (body != null) {
+            request.contentType(MediaType.APPLICATION_JSON).body(body);
+        }
+        return request.retrieve().body(String.class);
+    }
+
+    private long id(String body) throws Exception {
+        return objectMapper.readTree(body).path("id").asLong();
+    }
+
+    private static String email() {
+        return "plan-" + System.nanoTime() + "@example.com";
+    }
+}
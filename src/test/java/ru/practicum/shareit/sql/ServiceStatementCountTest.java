@@ -0,0 +1,129 @@
+package ru.practicum.shareit.sql;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemOwnerDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the statements of the list and approve calls against the database in application.properties. Every item
+ * gets past and future bookings and a comment, so a query per item or per booking shows up as a repeated shape.
+ */
+@Tag("db")
+@SpringBootTest
+class ServiceStatementCountTest {
+    private static final int ITEMS = 10;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final List<Long> itemIds = new ArrayList<>();
+    private Long ownerId;
+    private Long bookerId;
+
+    @BeforeEach
+    void seed() {
+        ownerId = createUser("owner").getId();
+        bookerId = createUser("booker").getId();
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < ITEMS; i++) {
+            Long itemId = itemService.create(ItemDto.builder().name("drill " + i).description("statement count")
+                    .available(true).build(), ownerId).getId();
+            itemIds.add(itemId);
+            insertBooking(itemId, now.minusDays(3), now.minusDays(2), "APPROVED");
+            insertBooking(itemId, now.plusDays(2), now.plusDays(3), "APPROVED");
+            insertBooking(itemId, now.plusDays(4), now.plusDays(5), "WAITING");
+            jdbcTemplate.update("INSERT INTO comments (text, item_id, author_id, created) VALUES (?, ?, ?, ?)",
+                    "comment " + i, itemId, bookerId, now.minusDays(1));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (Long itemId : itemIds) {
+            jdbcTemplate.update("DELETE FROM comments WHERE item_id = ?", itemId);
+            jdbcTemplate.update("DELETE FROM bookings WHERE item_id = ?", itemId);
+            jdbcTemplate.update("DELETE FROM booking_outbox WHERE item_id = ?", itemId);
+            jdbcTemplate.update("DELETE FROM items WHERE id = ?", itemId);
+        }
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", ownerId, bookerId);
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+        itemIds.clear();
+    }
+
+    @Test
+    void ownerItemsLoadBookingsAndCommentsInBulk() {
+        List<ItemOwnerDto> items;
+        try (SqlCapture capture = SqlCapture.start("owner items")) {
+            items = itemService.getAll(ownerId);
+            capture.report().assertStatementsAtMost(5).assertNoRepeatedStatements(2);
+        }
+        assertThat(items).hasSize(ITEMS)
+                .allSatisfy(item -> {
+                    assertThat(item.getNextBooking()).isNotNull();
+                    assertThat(item.getComments()).hasSize(1);
+                });
+    }
+
+    @Test
+    void bookerPageIsOneQueryAfterTheUserCheck() {
+        BookingPageDto page;
+        try (SqlCapture capture = SqlCapture.start("booker bookings")) {
+            page = bookingService.getBookings(bookerId, BookingState.ALL, null, 20);
+            capture.report().assertStatementsAtMost(2).assertNoRepeatedStatements(2);
+        }
+        assertThat(page.getBookings()).hasSize(20);
+    }
+
+    @Test
+    void approveDoesNotReloadTheBookingGraph() {
+        BookingRequestDto request = new BookingRequestDto();
+        request.setItemId(itemIds.get(0));
+        request.setStart(LocalDateTime.now().plusDays(10).withNano(0));
+        request.setEnd(request.getStart().plusHours(1));
+        Long bookingId = bookingService.create(request, bookerId).getId();
+
+        try (SqlCapture capture = SqlCapture.start("approve")) {
+            bookingService.setApprove(bookingId, ownerId, true);
+            capture.report().assertStatementsAtMost(3).assertNoRepeatedStatements(2);
+        }
+    }
+
+    private UserDto createUser(String name) {
+        return userService.create(UserDto.builder().name(name)
+                .email(name + "-" + System.nanoTime() + "@statement-count.test").build());
+    }
+
+    private void insertBooking(Long itemId, LocalDateTime start, LocalDateTime end, String status) {
+        jdbcTemplate.update("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) " +
+                "VALUES (?, ?, ?, ?, ?)", start, end, itemId, bookerId, status);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.sql;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Synthetic users, items, bookings, comments and outbox rows written straight into the tables, so the planner
+ * sees realistic volumes. Bookings are spread over three past years and one future year; there are a tenth as many
+ * users and items, at least 100 of each. The rows stay, a second run only adds what is missing.
+ * Used by {@link QueryPlanRegressionTest} and the plan check of the load profile.
+ */
+public final class SyntheticData {
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Tops the bookings table up to {@code bookings} rows, with proportional users, items, comments and outbox rows,
+     * and analyzes the database. Returns the number of bookings added.
+     */
+    public static int seed(Connection connection, int bookings) throws SQLException {
+        int missing;
+        try (Statement statement = connection.createStatement();
+             ResultSet count = statement.executeQuery("SELECT count(*) FROM bookings")) {
+            count.next();
+            missing = (int) Math.max(0, bookings - count.getLong(1));
+        }
+        if (missing == 0) {
+            return 0;
+        }
+        int users = Math.max(100, missing / 10);
+        int items = Math.max(100, missing / 10);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            String run = Long.toString(System.currentTimeMillis(), 36);
+            statement.execute("CREATE TEMPORARY TABLE plan_users ON COMMIT DROP AS WITH created AS ("
+                    + "INSERT INTO users (name, email) SELECT 'plan user ' || g, 'plan-" + run + "-' || g || '@example.com' "
+                    + "FROM generate_series(1, " + users + ") g RETURNING id) "
+                    + "SELECT id, row_number() OVER (ORDER BY id) AS n FROM created");
+            statement.execute("CREATE TEMPORARY TABLE plan_items ON COMMIT DROP AS WITH created AS ("
+                    + "INSERT INTO items (name, description, is_available, owner_id) "
+                    + "SELECT 'plan item ' || g, 'synthetic item ' || g, g % 10 <> 0, u.id "
+                    + "FROM generate_series(1, " + items + ") g JOIN plan_users u ON u.n = 1 + g % (" + users + " / 10) "
+                    + "RETURNING id, owner_id) "
+                    + "SELECT id, owner_id, row_number() OVER (ORDER BY id) AS n FROM created");
+            statement.execute("CREATE TEMPORARY TABLE plan_bookings ON COMMIT DROP AS WITH created AS ("
+                    + "INSERT INTO bookings (start_date, end_date, status, item_id, booker_id) "
+                    + "SELECT s, s + interval '1 day' * (1 + g % 7), "
+                    + "(ARRAY['APPROVED', 'APPROVED', 'APPROVED', 'WAITING', 'REJECTED', 'CANCELED'])[1 + g % 6], "
+                    + "i.id, u.id FROM generate_series(1, " + missing + ") g "
+                    + "CROSS JOIN LATERAL (SELECT now()::timestamp - interval '3 years' "
+                    + "+ interval '4 years' * ((g * 7919) % " + missing + ")::float / " + missing + " AS s) t "
+                    + "JOIN plan_items i ON i.n = 1 + (g * 31) % " + items + " "
+                    + "JOIN plan_users u ON u.n = 1 + (g * 17) % " + users + " "
+                    + "RETURNING id, item_id, booker_id, status, start_date, end_date) "
+                    + "SELECT * FROM created");
+            statement.execute("INSERT INTO comments (text, item_id, author_id, created) "
+                    + "SELECT 'synthetic comment', item_id, booker_id, end_date FROM plan_bookings "
+                    + "WHERE id % 10 = 0 AND status = 'APPROVED'");
+            statement.execute("INSERT INTO booking_outbox "
+                    + "(booking_id, item_id, booker_id, owner_id, status, start_date, end_date, created_at) "
+                    + "SELECT b.id, b.item_id, b.booker_id, i.owner_id, b.status, b.start_date, b.end_date, now() "
+                    + "FROM plan_bookings b JOIN plan_items i ON i.id = b.item_id");
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+        return missing;
+    }
+}